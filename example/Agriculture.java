@@ -2,12 +2,15 @@ package org.example;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.Chunk;
+import org.bukkit.GameRule;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.Chest;
 import org.bukkit.block.data.Ageable;
+import org.bukkit.block.data.BlockData;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -18,9 +21,14 @@ import org.bukkit.entity.IronGolem;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Villager;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -37,6 +45,14 @@ import java.util.concurrent.ThreadLocalRandom;
  *  2) Le joueur clique deux blocs (clic gauche / clic droit) avec ce bâton, à la même hauteur.
  *  3) On génère la zone (farmland, irrigation, coffres, PNJ fermier, 2 golems...).
  *  4) Les récoltes sont stockées en coffres (récolte auto), tant que les coffres existent.
+ *     Le fermier ne traite que la file des parcelles prêtes (mûres ou vides), alimentée
+ *     par BlockGrowEvent / pose / cassage de cultures dans le champ.
+ *     Champ déchargé : la pousse manquée est estimée au rechargement (modèle vanilla),
+ *     puis récoltée / replantée par lots, la récolte allant dans les coffres.
+ *     Récolte + replantation par lots, sous un budget global de parcelles/tick
+ *     (adapté au MSPT) et un maximum de parcelles/s par champ (/champ debit).
+ *     Grands champs découpés en partitions (une par chunk) : seules celles dont le chunk
+ *     est chargé travaillent, chacune avec sa file et ses stats (/champ stats <n>).
  *  5) Si tous les coffres sont cassés, le champ est désactivé (PNJ + golems retirés).
  *  6) Persistance dans farms.yml.
  */
@@ -45,6 +61,22 @@ public final class Agriculture implements CommandExecutor, Listener {
     private final JavaPlugin plugin;
     private final List<FieldSession> sessions = new ArrayList<>();
 
+    /**
+     * Index monde -> chunk -> champs, pour retrouver en O(1) le champ d'un bloc
+     * (BlockGrowEvent est très fréquent sur tout le serveur).
+     */
+    private final Map<UUID, Map<Long, List<FieldSession>>> fieldsByChunk = new HashMap<>();
+
+    /**
+     * Exécuteur de récolte commun à tous les champs : budget global de parcelles par tick
+     * (réduit si le serveur dépasse 45 ms/tick), réparti en round-robin par petits lots.
+     */
+    private static final int GLOBAL_PLOTS_PER_TICK = 64;
+    private static final int HARVEST_SLICE         = 8;
+    private final TickBudget harvestBudget = new TickBudget(GLOBAL_PLOTS_PER_TICK);
+    private BukkitRunnable harvestTask;
+    private int harvestIndex = 0;
+
     // Fichier de persistance
     private final File farmsFile;
     private final YamlConfiguration farmsYaml;
@@ -84,13 +116,25 @@ public final class Agriculture implements CommandExecutor, Listener {
      */
     @Override
     public boolean onCommand(CommandSender sender, Command cmd, String label, String[] args) {
-        if (!(sender instanceof Player player)) {
-            sender.sendMessage(ChatColor.RED + "Commande réservée aux joueurs.");
+        if (!cmd.getName().equalsIgnoreCase("champ")) {
+            return false;
+        }
+
+        // Sous-commande "debit"
+        if (args.length >= 1 && args[0].equalsIgnoreCase("debit")) {
+            handleRateCommand(sender, args);
             return true;
         }
 
-        if (!cmd.getName().equalsIgnoreCase("champ")) {
-            return false;
+        // Sous-commande "stats"
+        if (args.length >= 1 && args[0].equalsIgnoreCase("stats")) {
+            handleStatsCommand(sender, args);
+            return true;
+        }
+
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage(ChatColor.RED + "Commande réservée aux joueurs.");
+            return true;
         }
 
         // Donne le bâton spécial
@@ -104,6 +148,87 @@ public final class Agriculture implements CommandExecutor, Listener {
         return true;
     }
 
+    /**
+     * /champ debit                      : liste les champs et leur débit
+     * /champ debit <n> <parcelles/s>    : règle le maximum de parcelles/s du champ n (op)
+     */
+    private void handleRateCommand(CommandSender sender, String[] args) {
+        if (args.length == 1) {
+            if (sessions.isEmpty()) {
+                sender.sendMessage(ChatColor.YELLOW + "Aucun champ actif.");
+                return;
+            }
+            for (int i = 0; i < sessions.size(); i++) {
+                FieldSession fs = sessions.get(i);
+                sender.sendMessage(ChatColor.AQUA + "#" + (i + 1) + " " + fs.describe()
+                        + ChatColor.WHITE + " : " + fs.maxPlotsPerSecond + " parcelle(s)/s max, "
+                        + fs.readyCount() + " prête(s), " + fs.activePartitions() + "/" + fs.partitions.length
+                        + " partition(s) active(s)");
+            }
+            sender.sendMessage(ChatColor.GRAY + "Budget global : " + harvestBudget.getCurrent() + "/"
+                    + harvestBudget.getMaxPerTick() + " parcelle(s)/tick");
+            return;
+        }
+        if (!sender.isOp()) {
+            sender.sendMessage(ChatColor.RED + "Seul un opérateur peut modifier le débit.");
+            return;
+        }
+        if (args.length < 3) {
+            sender.sendMessage(ChatColor.RED + "Usage : /champ debit <n° de champ> <parcelles/s>");
+            return;
+        }
+        int index;
+        int rate;
+        try {
+            index = Integer.parseInt(args[1]) - 1;
+            rate = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            sender.sendMessage(ChatColor.RED + "Nombres invalides.");
+            return;
+        }
+        if (index < 0 || index >= sessions.size()) {
+            sender.sendMessage(ChatColor.RED + "Champ introuvable (1 à " + sessions.size() + ").");
+            return;
+        }
+        if (rate < 1 || rate > FieldSession.MAX_PLOTS_PER_SECOND) {
+            sender.sendMessage(ChatColor.RED + "Débit entre 1 et " + FieldSession.MAX_PLOTS_PER_SECOND + " parcelles/s.");
+            return;
+        }
+        FieldSession fs = sessions.get(index);
+        fs.maxPlotsPerSecond = rate;
+        saveAllSessions();
+        sender.sendMessage(ChatColor.GREEN + "Champ #" + (index + 1) + " : " + rate + " parcelle(s)/s max.");
+    }
+
+    /**
+     * /champ stats <n>                  : file et compteurs de chaque partition (chunk) du champ n
+     */
+    private void handleStatsCommand(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            sender.sendMessage(ChatColor.RED + "Usage : /champ stats <n° de champ>");
+            return;
+        }
+        int index;
+        try {
+            index = Integer.parseInt(args[1]) - 1;
+        } catch (NumberFormatException e) {
+            sender.sendMessage(ChatColor.RED + "Numéro de champ invalide : " + args[1]);
+            return;
+        }
+        if (index < 0 || index >= sessions.size()) {
+            sender.sendMessage(ChatColor.RED + "Champ introuvable (1 à " + sessions.size() + ").");
+            return;
+        }
+        FieldSession fs = sessions.get(index);
+        sender.sendMessage(ChatColor.AQUA + "Champ #" + (index + 1) + " " + fs.describe());
+        for (FieldSession.Partition part : fs.partitions) {
+            sender.sendMessage(ChatColor.GRAY + "chunk " + part.cx + "," + part.cz + " : "
+                    + part.plotCount + " parcelle(s), " + part.size + " prête(s), "
+                    + part.harvested + " récoltée(s), " + part.planted + " plantée(s)"
+                    + (fs.isActive(part) ? "" : ChatColor.YELLOW + " [en pause]"));
+        }
+    }
+
     /**
      * Donne un bâton nommé "Sélecteur de champ" au joueur.
      */
@@ -210,7 +335,7 @@ public final class Agriculture implements CommandExecutor, Listener {
         Location origin = new Location(w, minX, y, minZ);
         FieldSession fs = new FieldSession(plugin, origin, width, length);
         fs.start();
-        sessions.add(fs);
+        addSession(fs);
 
         player.sendMessage(ChatColor.GREEN + "Champ créé (" + width + "×" + length + ") !");
         saveAllSessions();
@@ -234,14 +359,152 @@ public final class Agriculture implements CommandExecutor, Listener {
                 // S'il n'y a plus de coffres => on arrête la session
                 if (!fs.hasChests()) {
                     fs.stop();
-                    sessions.remove(fs);
+                    removeSession(fs);
                     saveAllSessions();
                 }
-                break; // on peut s'arrêter
+                return; // on peut s'arrêter
+            }
+        }
+
+        // Culture cassée dans un champ => parcelle à replanter
+        FieldSession fs = fieldAt(block);
+        if (fs != null) {
+            fs.onCropBroken(block);
+        }
+    }
+
+    /* =========================================================== */
+    /*     ÉVÉNEMENTS : pousse / pose de cultures dans un champ    */
+    /* =========================================================== */
+    // MONITOR : on ne fait qu'enregistrer l'état, une fois que plus personne ne peut annuler
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBlockGrow(BlockGrowEvent event) {
+        FieldSession fs = fieldAt(event.getBlock());
+        if (fs != null) {
+            fs.onCropChanged(event.getBlock(), event.getNewState().getBlockData());
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        Block block = event.getBlockPlaced();
+        FieldSession fs = fieldAt(block);
+        if (fs != null) {
+            fs.onCropChanged(block, block.getBlockData());
+        }
+    }
+
+    /* =========================================================== */
+    /*   ÉVÉNEMENTS : (dé)chargement de chunk (rattrapage)         */
+    /* =========================================================== */
+    @EventHandler
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        for (FieldSession fs : fieldsIn(event.getChunk())) {
+            fs.onChunkUnloaded(event.getChunk().getX(), event.getChunk().getZ());
+        }
+    }
+
+    @EventHandler
+    public void onChunkLoad(ChunkLoadEvent event) {
+        for (FieldSession fs : fieldsIn(event.getChunk())) {
+            fs.onChunkLoaded(event.getChunk().getX(), event.getChunk().getZ());
+        }
+    }
+
+    private List<FieldSession> fieldsIn(Chunk chunk) {
+        Map<Long, List<FieldSession>> byChunk = fieldsByChunk.get(chunk.getWorld().getUID());
+        if (byChunk == null) {
+            return List.of();
+        }
+        List<FieldSession> list = byChunk.get(chunkKey(chunk.getX(), chunk.getZ()));
+        return list != null ? list : List.of();
+    }
+
+    /* =========================================================== */
+    /*          EXÉCUTEUR DE RÉCOLTE (budget global / tick)         */
+    /* =========================================================== */
+    private void startHarvestExecutor() {
+        if (harvestTask != null) {
+            return;
+        }
+        harvestTask = new BukkitRunnable() {
+            int ticks = 0;
+
+            @Override
+            public void run() {
+                if (sessions.isEmpty()) {
+                    return;
+                }
+                // Nouvelle seconde : quotas par champ remis à zéro
+                if (++ticks % 20 == 0) {
+                    for (FieldSession fs : sessions) {
+                        fs.plotsThisSecond = 0;
+                    }
+                }
+
+                int allowance = harvestBudget.nextAllowance();
+                int idle = 0;
+                while (allowance > 0 && idle < sessions.size()) {
+                    FieldSession fs = sessions.get(harvestIndex % sessions.size());
+                    harvestIndex = (harvestIndex + 1) % sessions.size();
+                    int done = fs.harvestBatch(Math.min(allowance, HARVEST_SLICE));
+                    if (done == 0) {
+                        idle++;
+                    } else {
+                        idle = 0;
+                        allowance -= done;
+                    }
+                }
             }
+        };
+        harvestTask.runTaskTimer(plugin, 1L, 1L);
+    }
+
+    /* =========================================================== */
+    /*          INDEX DES CHAMPS (monde -> chunk -> champs)        */
+    /* =========================================================== */
+    private void addSession(FieldSession fs) {
+        sessions.add(fs);
+        startHarvestExecutor();
+        Map<Long, List<FieldSession>> byChunk = fieldsByChunk.computeIfAbsent(fs.world.getUID(), k -> new HashMap<>());
+        for (int cx = fs.baseX >> 4; cx <= (fs.baseX + fs.width - 1) >> 4; cx++) {
+            for (int cz = fs.baseZ >> 4; cz <= (fs.baseZ + fs.length - 1) >> 4; cz++) {
+                byChunk.computeIfAbsent(chunkKey(cx, cz), k -> new ArrayList<>(1)).add(fs);
+            }
+        }
+    }
+
+    private void removeSession(FieldSession fs) {
+        sessions.remove(fs);
+        Map<Long, List<FieldSession>> byChunk = fieldsByChunk.get(fs.world.getUID());
+        if (byChunk != null) {
+            byChunk.values().forEach(list -> list.remove(fs));
+            byChunk.values().removeIf(List::isEmpty);
         }
     }
 
+    /** Champ dont la couche de cultures contient ce bloc, ou null. */
+    private FieldSession fieldAt(Block block) {
+        Map<Long, List<FieldSession>> byChunk = fieldsByChunk.get(block.getWorld().getUID());
+        if (byChunk == null) {
+            return null;
+        }
+        List<FieldSession> candidates = byChunk.get(chunkKey(block.getX() >> 4, block.getZ() >> 4));
+        if (candidates == null) {
+            return null;
+        }
+        for (FieldSession fs : candidates) {
+            if (fs.plotIndex(block) >= 0) {
+                return fs;
+            }
+        }
+        return null;
+    }
+
+    private static long chunkKey(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
     /* =========================================================== */
     /*                           PERSISTANCE                       */
     /* =========================================================== */
@@ -286,8 +549,19 @@ public final class Agriculture implements CommandExecutor, Listener {
                     List.of("Agriculteur", "Garde du champ"));
 
             FieldSession fs = new FieldSession(plugin, origin, width, length);
-            Bukkit.getScheduler().runTaskLater(plugin, fs::start, 20L);
-            sessions.add(fs);
+            fs.maxPlotsPerSecond = Math.max(1, Math.min(FieldSession.MAX_PLOTS_PER_SECOND,
+                    sec.getInt("plotsPerSecond", FieldSession.DEFAULT_PLOTS_PER_SECOND)));
+            ConfigurationSection pendingSec = sec.getConfigurationSection("pendingItems");
+            if (pendingSec != null) {
+                for (String name : pendingSec.getKeys(false)) {
+                    Material m = Material.matchMaterial(name);
+                    if (m != null) {
+                        fs.pendingItems.put(m, pendingSec.getLong(name));
+                    }
+                }
+            }
+            Bukkit.getScheduler().runTaskLater(plugin, fs::resume, 20L);
+            addSession(fs);
             loaded++;
         }
         plugin.getLogger().info("[Agriculture] Restauré " + loaded + " champ(s).");
@@ -298,6 +572,11 @@ public final class Agriculture implements CommandExecutor, Listener {
             fs.stop();
         }
         sessions.clear();
+        fieldsByChunk.clear();
+        if (harvestTask != null) {
+            harvestTask.cancel();
+            harvestTask = null;
+        }
     }
 
     private void clearZone(Location origin, int width, int length, List<String> names) {
@@ -340,6 +619,42 @@ public final class Agriculture implements CommandExecutor, Listener {
         private static final int CHESTS_PER_CORNER = 6;   // coffres par coin
         private static final Material FRAME_BLOCK  = Material.OAK_LOG;
         private static final Material LIGHT_BLOCK  = Material.SEA_LANTERN;
+        private static final int SWEEP_PERIOD      = 5;   // filet de sécurité : 1 parcelle toutes les 5 s
+
+        // État compact d'une parcelle (1 octet) :
+        //  bits 0-2 : culture (CROP_*)
+        //  bits 3-5 : dernier âge connu (0..7)
+        //  bit 6    : parcelle en file
+        //  bit 7    : case d'irrigation (pas une parcelle)
+        private static final int CROP_MASK  = 0x07;
+        private static final int AGE_SHIFT  = 3;
+        private static final int AGE_MASK   = 0x07 << AGE_SHIFT;
+        private static final int FLAG_QUEUED = 0x40;
+        private static final int FLAG_WATER  = 0x80;
+
+        private static final int CROP_NONE      = 0; // rien (air)
+        private static final int CROP_WHEAT     = 1;
+        private static final int CROP_POTATOES  = 2;
+        private static final int CROP_CARROTS   = 3;
+        private static final int CROP_BEETROOTS = 4;
+        private static final int CROP_OTHER     = 5; // autre bloc posé par un joueur
+        private static final int[] CROP_MAX_AGE = {0, 7, 7, 7, 3};
+
+        // Récolte moyenne d'une culture mûre, en centièmes d'item (1 + binomiale(3, 4/7) = 2,71)
+        private static final Material[][] YIELD_ITEMS = {
+                {}, {Material.WHEAT, Material.WHEAT_SEEDS}, {Material.POTATO}, {Material.CARROT},
+                {Material.BEETROOT, Material.BEETROOT_SEEDS}
+        };
+        private static final int[][] YIELD_CENTI = {{}, {100, 271}, {271}, {271}, {100, 271}};
+
+        // Rattrapage hors-ligne : modèle vanilla d'une culture sur terre irriguée, voisines mélangées
+        // (facteur 5 => 1 chance sur 6 de pousser par random tick ; un bloc reçoit
+        //  randomTickSpeed / 4096 random ticks par tick)
+        private static final double GROWTH_CHANCE = 1.0 / 6;
+        // Part des random ticks qui atteignent ce modèle, par culture : la betterave en écarte 1 sur 3
+        private static final double[] CROP_TICK_SHARE = {0, 1, 1, 1, 2.0 / 3};
+        private static final int CATCHUP_PLOTS_PER_TICK  = 256;
+
         private static final List<Material> CROPS  = List.of(
                 Material.WHEAT_SEEDS,
                 Material.POTATO,
@@ -347,6 +662,12 @@ public final class Agriculture implements CommandExecutor, Listener {
                 Material.BEETROOT_SEEDS
         );
 
+        // Débit de récolte par champ (parcelles/s), sous le budget global de l'exécuteur
+        static final int DEFAULT_PLOTS_PER_SECOND = 20;
+        static final int MAX_PLOTS_PER_SECOND     = 400;
+        int maxPlotsPerSecond = DEFAULT_PLOTS_PER_SECOND;
+        int plotsThisSecond = 0;
+
         private final JavaPlugin plugin;
         private final World world;
         private final int baseX, baseY, baseZ, width, length;
@@ -354,11 +675,53 @@ public final class Agriculture implements CommandExecutor, Listener {
         private Villager farmer;
         private final List<Golem> golems = new ArrayList<>();
         private BukkitRunnable farmTask;
-        private final List<Block> farmland = new ArrayList<>();
         private final List<Block> chestBlocks = new ArrayList<>();
 
+        // Un octet d'état par case du champ, indice = dx * length + dz
+        private final byte[] plots;
+        private int plotCount = 0;
+
+        // Une partition par chunk touché, indice = (cx - minCX) * chunksZ + (cz - minCZ)
+        private final int minCX, minCZ, chunksZ;
+        final Partition[] partitions;
+        private int partitionIndex = 0;
+
         private int farmIndex = 0;
+        private int sweepTicks = 0;
         private int depositIndex = 0;
+        // Récolte pas encore rangée (coffres dans des chunks déchargés), retentée chaque seconde
+        final Map<Material, Long> pendingItems = new EnumMap<>(Material.class);
+
+        /**
+         * Partie du champ contenue dans un chunk : sa file de parcelles prêtes
+         * (circulaire, chaque parcelle y est au plus une fois), son état de chargement
+         * pour le rattrapage, et ses compteurs.
+         */
+        static final class Partition {
+            final int cx, cz;
+            final int minDX, maxDX, minDZ, maxDZ; // cases du champ couvertes (dx, dz)
+            int plotCount;
+
+            int[] queue;
+            int head = 0;
+            int size = 0;
+
+            long unloadedSince = -1;    // gameTime du déchargement, -1 si chargé
+            boolean catchingUp = false; // rattrapage en cours (écritures par lots)
+            boolean needsInit = false;  // reprise : parcelles pas encore relues (chunk jamais chargé)
+
+            long harvested = 0;
+            long planted = 0;
+
+            Partition(int cx, int cz, int minDX, int maxDX, int minDZ, int maxDZ) {
+                this.cx = cx;
+                this.cz = cz;
+                this.minDX = minDX;
+                this.maxDX = maxDX;
+                this.minDZ = minDZ;
+                this.maxDZ = maxDZ;
+            }
+        }
 
         FieldSession(JavaPlugin plugin, Location origin, int width, int length) {
             this.plugin = plugin;
@@ -368,20 +731,84 @@ public final class Agriculture implements CommandExecutor, Listener {
             this.baseZ  = origin.getBlockZ();
             this.width  = width;
             this.length = length;
+            this.plots  = new byte[width * length];
+
+            // Découpage par chunk (aucun accès au monde)
+            this.minCX = baseX >> 4;
+            this.minCZ = baseZ >> 4;
+            int chunksX = ((baseX + width - 1) >> 4) - minCX + 1;
+            this.chunksZ = ((baseZ + length - 1) >> 4) - minCZ + 1;
+            this.partitions = new Partition[chunksX * chunksZ];
+            for (int i = 0; i < chunksX; i++) {
+                for (int j = 0; j < chunksZ; j++) {
+                    int cx = minCX + i, cz = minCZ + j;
+                    Partition part = new Partition(cx, cz,
+                            Math.max(0, (cx << 4) - baseX), Math.min(width - 1, (cx << 4) + 15 - baseX),
+                            Math.max(0, (cz << 4) - baseZ), Math.min(length - 1, (cz << 4) + 15 - baseZ));
+                    for (int dx = part.minDX; dx <= part.maxDX; dx++) {
+                        for (int dz = part.minDZ; dz <= part.maxDZ; dz++) {
+                            if (isWaterCell(dx, dz)) {
+                                plots[dx * length + dz] = (byte) FLAG_WATER;
+                            } else {
+                                part.plotCount++;
+                            }
+                        }
+                    }
+                    part.queue = new int[Math.max(1, part.plotCount)];
+                    plotCount += part.plotCount;
+                    partitions[i * chunksZ + j] = part;
+                }
+            }
         }
 
+        /** Création du champ : tout est construit, chaque chunk est touché une fois. */
         void start() {
             buildFrame();
-            buildInside();
-            placeChests();
+            placeChests(true);
             placeTorches();
 
             spawnOrRespawnFarmer();
             spawnOrRespawnGolems();
 
+            for (Partition part : partitions) {
+                initPartition(part);
+            }
+
             runFarmLoop();
         }
 
+        /**
+         * Reprise après un redémarrage : rien n'est chargé. Chaque partition reconstruit son sol
+         * et relit ses parcelles quand son chunk se charge (tout de suite s'il l'est déjà).
+         */
+        void resume() {
+            placeChests(false);
+            for (Partition part : partitions) {
+                part.needsInit = true;
+                if (world.isChunkLoaded(part.cx, part.cz)) {
+                    initPartition(part);
+                }
+            }
+            runFarmLoop();
+        }
+
+        /**
+         * Sol d'une partition (chunk chargé) puis état initial : une seule lecture de chaque
+         * parcelle, ensuite les événements suffisent.
+         */
+        private void initPartition(Partition part) {
+            part.needsInit = false;
+            part.unloadedSince = -1;
+            buildInside(part);
+            for (int dx = part.minDX; dx <= part.maxDX; dx++) {
+                for (int dz = part.minDZ; dz <= part.maxDZ; dz++) {
+                    if ((plots[dx * length + dz] & FLAG_WATER) == 0) {
+                        checkPlot(dx * length + dz);
+                    }
+                }
+            }
+        }
+
         void stop() {
             if (farmTask != null) {
                 farmTask.cancel();
@@ -410,39 +837,41 @@ public final class Agriculture implements CommandExecutor, Listener {
             }
         }
 
-        private void buildInside() {
-            for (int dx = 0; dx < width; dx++) {
-                for (int dz = 0; dz < length; dz++) {
+        /** Sol d'une partition (un seul chunk). */
+        private void buildInside(Partition part) {
+            for (int dx = part.minDX; dx <= part.maxDX; dx++) {
+                for (int dz = part.minDZ; dz <= part.maxDZ; dz++) {
                     int x = baseX + dx;
                     int z = baseZ + dz;
                     // Eau d'irrigation
-                    if ((dx + WATER_GRID/2) % WATER_GRID == 0 &&
-                            (dz + WATER_GRID/2) % WATER_GRID == 0) {
+                    if ((plots[dx * length + dz] & FLAG_WATER) != 0) {
                         setBlock(x, baseY - 1, z, LIGHT_BLOCK);
                         setBlock(x, baseY,     z, Material.WATER);
                     } else {
                         setBlock(x, baseY, z, Material.FARMLAND);
-                        farmland.add(world.getBlockAt(x, baseY, z));
                     }
                 }
             }
         }
 
-        private void placeChests() {
+        /** Coffres aux 4 coins ; sans {@code place}, on ne fait que les réenregistrer (reprise). */
+        private void placeChests(boolean place) {
             // Coin Nord-Ouest
-            createChests(new Location(world, baseX - 2, baseY, baseZ - 2), true);
+            createChests(new Location(world, baseX - 2, baseY, baseZ - 2), true, place);
             // Coin Nord-Est
-            createChests(new Location(world, baseX + width + 1, baseY, baseZ - 2), false);
+            createChests(new Location(world, baseX + width + 1, baseY, baseZ - 2), false, place);
             // Coin Sud-Ouest
-            createChests(new Location(world, baseX - 2, baseY, baseZ + length + 1), true);
+            createChests(new Location(world, baseX - 2, baseY, baseZ + length + 1), true, place);
             // Coin Sud-Est
-            createChests(new Location(world, baseX + width + 1, baseY, baseZ + length + 1), false);
+            createChests(new Location(world, baseX + width + 1, baseY, baseZ + length + 1), false, place);
         }
 
-        private void createChests(Location start, boolean positiveX) {
+        private void createChests(Location start, boolean positiveX, boolean place) {
             for (int i = 0; i < CHESTS_PER_CORNER; i++) {
                 Location loc = start.clone().add(positiveX ? i : -i, 0, 0);
-                setBlock(loc, Material.CHEST);
+                if (place) {
+                    setBlock(loc, Material.CHEST);
+                }
                 chestBlocks.add(loc.getBlock());
             }
         }
@@ -491,56 +920,424 @@ public final class Agriculture implements CommandExecutor, Listener {
             }
         }
 
-        /* ----------------- Boucle farmland 1 bloc/s ------------------- */
+        /* ----------------- File des parcelles prêtes ------------------- */
+
+        /** Indice de parcelle du bloc de culture (couche baseY + 1), -1 hors champ ou sur l'eau. */
+        int plotIndex(Block crop) {
+            int dx = crop.getX() - baseX;
+            int dz = crop.getZ() - baseZ;
+            if (crop.getY() != baseY + 1 || dx < 0 || dx >= width || dz < 0 || dz >= length || isWaterCell(dx, dz)) {
+                return -1;
+            }
+            return dx * length + dz;
+        }
+
+        private static boolean isWaterCell(int dx, int dz) {
+            return (dx + WATER_GRID/2) % WATER_GRID == 0 && (dz + WATER_GRID/2) % WATER_GRID == 0;
+        }
+
+        private Block cropBlock(int plot) {
+            return world.getBlockAt(baseX + plot / length, baseY + 1, baseZ + plot % length);
+        }
+
+        private static int cropCode(Material mat) {
+            return switch (mat) {
+                case AIR       -> CROP_NONE;
+                case WHEAT     -> CROP_WHEAT;
+                case POTATOES  -> CROP_POTATOES;
+                case CARROTS   -> CROP_CARROTS;
+                case BEETROOTS -> CROP_BEETROOTS;
+                default        -> CROP_OTHER;
+            };
+        }
+
+        private void setState(int plot, int crop, int age) {
+            plots[plot] = (byte) ((plots[plot] & (FLAG_QUEUED | FLAG_WATER)) | crop | (Math.min(age, 7) << AGE_SHIFT));
+        }
+
+        private int crop(int plot) {
+            return plots[plot] & CROP_MASK;
+        }
+
+        private int age(int plot) {
+            return (plots[plot] & AGE_MASK) >> AGE_SHIFT;
+        }
+
+        /** Parcelle à traiter d'après son seul état : vide, ou culture connue à maturité. */
+        private boolean needsWork(int plot) {
+            int crop = crop(plot);
+            return crop == CROP_NONE || (crop != CROP_OTHER && age(plot) >= CROP_MAX_AGE[crop]);
+        }
+
+        private Partition partitionOf(int plot) {
+            return partitionAt((baseX + plot / length) >> 4, (baseZ + plot % length) >> 4);
+        }
+
+        private Partition partitionAt(int cx, int cz) {
+            int i = cx - minCX, j = cz - minCZ;
+            if (i < 0 || j < 0 || j >= chunksZ || i * chunksZ + j >= partitions.length) {
+                return null;
+            }
+            return partitions[i * chunksZ + j];
+        }
+
+        /** Partition qui peut travailler : relue, chunk chargé, pas de rattrapage en attente ou en cours. */
+        boolean isActive(Partition part) {
+            return !part.needsInit && part.unloadedSince < 0 && !part.catchingUp
+                    && world.isChunkLoaded(part.cx, part.cz);
+        }
+
+        int activePartitions() {
+            int n = 0;
+            for (Partition part : partitions) {
+                if (isActive(part)) n++;
+            }
+            return n;
+        }
+
+        private void enqueue(int plot) {
+            if (plot < 0 || (plots[plot] & FLAG_QUEUED) != 0) {
+                return;
+            }
+            plots[plot] |= FLAG_QUEUED;
+            Partition part = partitionOf(plot);
+            part.queue[(part.head + part.size) % part.queue.length] = plot;
+            part.size++;
+        }
+
+        private int pollReady(Partition part) {
+            if (part.size == 0) {
+                return -1;
+            }
+            int plot = part.queue[part.head];
+            part.head = (part.head + 1) % part.queue.length;
+            part.size--;
+            plots[plot] &= ~FLAG_QUEUED;
+            return plot;
+        }
+
+        /** Pousse / pose : on note culture et âge, la parcelle n'entre dans la file qu'à maturité. */
+        void onCropChanged(Block crop, BlockData data) {
+            int plot = plotIndex(crop);
+            if (plot < 0) {
+                return;
+            }
+            setState(plot, cropCode(data.getMaterial()), data instanceof Ageable age ? age.getAge() : 0);
+            if (needsWork(plot)) {
+                enqueue(plot);
+            }
+        }
+
+        /** Culture cassée (joueur, eau...) : parcelle à replanter. */
+        void onCropBroken(Block crop) {
+            int plot = plotIndex(crop);
+            if (plot >= 0) {
+                setState(plot, CROP_NONE, 0);
+                enqueue(plot);
+            }
+        }
+
+        /** Lecture directe du monde : rafraîchit l'état, met la parcelle en file si elle est mûre ou vide. */
+        private void checkPlot(int plot) {
+            Block above = cropBlock(plot);
+            Material mat = above.getType();
+            int age = mat != Material.AIR && above.getBlockData() instanceof Ageable a ? a.getAge() : 0;
+            setState(plot, cropCode(mat), age);
+            if (needsWork(plot)) {
+                enqueue(plot);
+            }
+        }
+
+        /* ----------------- Boucle 1/s : PNJ, golems, filet de sécurité ------------------- */
         private void runFarmLoop() {
             farmTask = new BukkitRunnable() {
                 @Override
                 public void run() {
-                    // Vérif PNJ
-                    if (farmer == null || farmer.isDead()) {
-                        spawnOrRespawnFarmer();
+                    // Vérif PNJ (seulement si le centre du champ est chargé : pas de chargement forcé)
+                    if (world.isChunkLoaded((baseX + width / 2) >> 4, (baseZ + length / 2) >> 4)) {
+                        if (farmer == null || farmer.isDead()) {
+                            spawnOrRespawnFarmer();
+                        }
+                        spawnOrRespawnGolems();
+                    }
+
+                    // Récolte en attente d'un coffre chargé
+                    if (!pendingItems.isEmpty()) {
+                        Map<Material, Long> items = new EnumMap<>(pendingItems);
+                        pendingItems.clear();
+                        depositAggregated(items);
                     }
-                    spawnOrRespawnGolems();
 
                     // Champ vide ?
-                    if (farmland.isEmpty()) {
+                    if (plotCount == 0) {
                         return;
                     }
 
-                    // On traite 1 bloc farmland par seconde
-                    Block soil = farmland.get(farmIndex);
-                    farmIndex = (farmIndex + 1) % farmland.size();
-
-                    // Bloc au-dessus
-                    Block above = soil.getRelative(0, 1, 0);
-                    Material mat = above.getType();
-
-                    // TP PNJ "pour le show"
-                    Location posAbove = above.getLocation().add(0.5, 0, 0.5);
-                    farmer.teleport(posAbove);
-
-                    // 1) Crop mûr ?
-                    if (above.getBlockData() instanceof Ageable age
-                            && age.getAge() == age.getMaximumAge()) {
-                        Collection<ItemStack> drops = above.getDrops();
-                        above.setType(Material.AIR);
-                        deposit(drops);
-                        replant(above);
-                    }
-                    // 2) Air => planter
-                    else if (mat == Material.AIR) {
-                        replant(above);
+                    // Filet de sécurité (engrais, événement manqué) : une parcelle de temps en temps,
+                    // uniquement dans une partition active
+                    if (++sweepTicks >= SWEEP_PERIOD) {
+                        sweepTicks = 0;
+                        do {
+                            farmIndex = (farmIndex + 1) % plots.length;
+                        } while ((plots[farmIndex] & FLAG_WATER) != 0);
+                        if (isActive(partitionOf(farmIndex))) {
+                            checkPlot(farmIndex);
+                        }
                     }
-                    // sinon, on ne fait rien (croissance)
                 }
             };
             farmTask.runTaskTimer(plugin, 20L, 20L);
+        }
+
+        /* ----------------- Récolte par lots (appelée par l'exécuteur) ------------------- */
+
+        /**
+         * Récolte et replante jusqu'à {@code max} parcelles prêtes (dans la limite du quota
+         * de la seconde), en une seule passe, puis dépose toute la récolte du lot d'un coup.
+         * @return nombre de parcelles traitées
+         */
+        int harvestBatch(int max) {
+            if (farmTask == null) {
+                return 0;
+            }
+            int quota = Math.min(max, maxPlotsPerSecond - plotsThisSecond);
+            List<ItemStack> drops = new ArrayList<>();
+            Block last = null;
+            int done = 0;
+            // Partitions en round-robin ; celles dont le chunk n'est pas chargé sont sautées
+            for (int tried = 0; tried < partitions.length && done < quota; tried++) {
+                Partition part = partitions[partitionIndex];
+                partitionIndex = (partitionIndex + 1) % partitions.length;
+                if (part.size == 0 || !isActive(part)) {
+                    continue;
+                }
+                while (done < quota) {
+                    int plot = pollReady(part);
+                    if (plot < 0) {
+                        break;
+                    }
+                    // État périmé (replantée par un joueur entre-temps...) : rien à faire
+                    if (!needsWork(plot)) {
+                        continue;
+                    }
+                    Block above = cropBlock(plot);
+
+                    // 1) Crop mûr (d'après l'état, confirmé dans le monde) : récolte + replantation
+                    //    dans la même passe. État périmé (terre piétinée, pousse annulée...) : on relit.
+                    if (crop(plot) != CROP_NONE) {
+                        if (!(above.getBlockData() instanceof Ageable a && a.getAge() == a.getMaximumAge())) {
+                            checkPlot(plot);
+                            continue;
+                        }
+                        drops.addAll(above.getDrops());
+                        replant(plot, above);
+                        part.harvested++;
+                    }
+                    // 2) Air => planter (on vérifie quand même le monde avant de poser)
+                    else if (above.getType() == Material.AIR) {
+                        replant(plot, above);
+                        part.planted++;
+                    } else {
+                        checkPlot(plot);
+                        continue;
+                    }
+                    last = above;
+                    done++;
+                }
+            }
+            plotsThisSecond += done;
+
+            if (!drops.isEmpty()) {
+                depositStacks(drops);
+            }
+            // TP PNJ "pour le show" (une fois par lot)
+            if (last != null && farmer != null && farmer.isValid()) {
+                farmer.teleport(last.getLocation().add(0.5, 0, 0.5));
+            }
+            return done;
+        }
+
+        int readyCount() {
+            int n = 0;
+            for (Partition part : partitions) {
+                n += part.size;
+            }
+            return n;
+        }
+
+        String describe() {
+            return "(" + baseX + ", " + baseY + ", " + baseZ + ") " + width + "x" + length;
+        }
+
+        /* ----------------- Rattrapage hors-ligne ------------------- */
+
+        /** Le chunk d'une partition se décharge : on note depuis quand. */
+        void onChunkUnloaded(int cx, int cz) {
+            Partition part = partitionAt(cx, cz);
+            if (part != null && part.unloadedSince < 0) {
+                part.unloadedSince = world.getGameTime();
+            }
+        }
+
+        /**
+         * Le chunk d'une partition revient : première lecture après une reprise,
+         * sinon rattrapage de cette partition seulement.
+         */
+        void onChunkLoaded(int cx, int cz) {
+            Partition part = partitionAt(cx, cz);
+            if (part == null) {
+                return;
+            }
+            if (part.needsInit) {
+                // Pas d'écriture pendant l'événement de chargement
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (part.needsInit && farmTask != null && world.isChunkLoaded(part.cx, part.cz)) {
+                        initPartition(part);
+                    }
+                });
+                return;
+            }
+            if (part.unloadedSince < 0 || part.catchingUp) {
+                return;
+            }
+            long elapsed = world.getGameTime() - part.unloadedSince;
+            part.unloadedSince = -1;
+            if (elapsed > 0 && farmTask != null) {
+                part.catchingUp = true;
+                // Pas d'écriture pendant l'événement de chargement
+                Bukkit.getScheduler().runTask(plugin, () -> startCatchUp(part, elapsed));
+            }
+        }
+
+        /**
+         * Estime la pousse de chaque parcelle de la partition pendant {@code elapsed} ticks,
+         * compte les récoltes qu'aurait faites le fermier (plafonnées à la part de son débit
+         * revenant à la partition), crédite la récolte aux coffres en un seul dépôt
+         * puis réécrit les parcelles modifiées par lots.
+         */
+        private void startCatchUp(Partition part, long elapsed) {
+            Integer rts = world.getGameRuleValue(GameRule.RANDOM_TICK_SPEED);
+            double stagesPerPlot = elapsed * (rts != null ? rts : 3) / 4096.0 * GROWTH_CHANCE;
+            long harvestBudget = elapsed / 20 * maxPlotsPerSecond * part.plotCount / Math.max(1, plotCount);
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+
+            long[] harvests = new long[CROP_MAX_AGE.length];
+            int[] changed = new int[part.plotCount];
+            int n = 0;
+            for (int dx = part.minDX; dx <= part.maxDX; dx++) {
+                for (int dz = part.minDZ; dz <= part.maxDZ; dz++) {
+                    int plot = dx * length + dz;
+                    int crop = crop(plot);
+                    if ((plots[plot] & FLAG_WATER) != 0 || crop == CROP_NONE || crop == CROP_OTHER) {
+                        continue;
+                    }
+                    int max = CROP_MAX_AGE[crop];
+                    long total = age(plot) + (long) Math.floor(stagesPerPlot * CROP_TICK_SHARE[crop] + rnd.nextDouble());
+                    long cycles = total >= max ? 1 + (total - max) / max : 0;
+                    cycles = Math.min(cycles, harvestBudget);
+                    harvestBudget -= cycles;
+
+                    int newAge = (int) Math.min(max, total - cycles * max);
+                    if (cycles == 0 && newAge == age(plot)) {
+                        continue;
+                    }
+                    harvests[crop] += cycles;
+                    part.harvested += cycles;
+                    setState(plot, crop, newAge);
+                    changed[n++] = plot;
+                }
+            }
+
+            // Récolte créditée d'un bloc
+            Map<Material, Long> yield = new EnumMap<>(Material.class);
+            for (int crop = 1; crop < harvests.length; crop++) {
+                for (int i = 0; i < YIELD_ITEMS[crop].length; i++) {
+                    long amount = harvests[crop] * YIELD_CENTI[crop][i] / 100;
+                    if (amount > 0) {
+                        yield.merge(YIELD_ITEMS[crop][i], amount, Long::sum);
+                    }
+                }
+            }
+            depositAggregated(yield);
+
+            applyCatchUp(part, changed, n);
+        }
+
+        /** Réécrit l'âge des parcelles modifiées, CATCHUP_PLOTS_PER_TICK par tick. */
+        private void applyCatchUp(Partition part, int[] changed, int count) {
+            new BukkitRunnable() {
+                int next = 0;
+
+                @Override
+                public void run() {
+                    // Champ arrêté, ou chunk de nouveau déchargé : le filet de sécurité relira le reste
+                    if (farmTask == null || !world.isChunkLoaded(part.cx, part.cz)) {
+                        part.catchingUp = false;
+                        cancel();
+                        return;
+                    }
+                    int end = Math.min(count, next + CATCHUP_PLOTS_PER_TICK);
+                    for (; next < end; next++) {
+                        int plot = changed[next];
+                        Block above = cropBlock(plot);
+                        if (above.getBlockData() instanceof Ageable age) {
+                            age.setAge(Math.min(age(plot), age.getMaximumAge()));
+                            above.setBlockData(age, false);
+                            if (needsWork(plot)) {
+                                enqueue(plot);
+                            }
+                        } else {
+                            checkPlot(plot); // changé depuis : on relit
+                        }
+                    }
+                    if (next >= count) {
+                        part.catchingUp = false;
+                        cancel();
+                    }
+                }
+            }.runTaskTimer(plugin, 1L, 1L);
+        }
+
+        /** Dépose des quantités agrégées (piles pleines), coffre après coffre. */
+        private void depositAggregated(Map<Material, Long> amounts) {
+            List<ItemStack> stacks = new ArrayList<>();
+            for (Map.Entry<Material, Long> e : amounts.entrySet()) {
+                int max = Math.max(1, e.getKey().getMaxStackSize());
+                for (long left = e.getValue(); left > 0; left -= max) {
+                    stacks.add(new ItemStack(e.getKey(), (int) Math.min(max, left)));
+                }
+            }
+            depositStacks(stacks);
+        }
+
+        /**
+         * Dépose des items, en passant au coffre suivant tant qu'il en reste. Les coffres
+         * dont le chunk est déchargé sont sautés (pas de chargement forcé) ; le reste est
+         * mis de côté s'il existe encore au moins un coffre.
+         */
+        private void depositStacks(List<ItemStack> stacks) {
+            for (int tries = 0; tries < chestBlocks.size() && !stacks.isEmpty(); tries++) {
+                Block chestB = chestBlocks.get(depositIndex % chestBlocks.size());
+                depositIndex++;
+                if (!world.isChunkLoaded(chestB.getX() >> 4, chestB.getZ() >> 4)) {
+                    continue;
+                }
+                if (chestB.getType() == Material.CHEST) {
+                    Chest c = (Chest) chestB.getState();
+                    stacks = new ArrayList<>(c.getInventory().addItem(stacks.toArray(new ItemStack[0])).values());
+                }
+            }
+            if (!chestBlocks.isEmpty()) {
+                for (ItemStack left : stacks) {
+                    pendingItems.merge(left.getType(), (long) left.getAmount(), Long::sum);
+                }
+            }
         }
 
         /**
          * Plante une graine aléatoire
          */
-        private void replant(Block block) {
+        private void replant(int plot, Block block) {
             Material seed = CROPS.get(ThreadLocalRandom.current().nextInt(CROPS.size()));
             Material cropType = switch (seed) {
                 case WHEAT_SEEDS    -> Material.WHEAT;
@@ -550,24 +1347,7 @@ public final class Agriculture implements CommandExecutor, Listener {
                 default             -> Material.WHEAT;
             };
             block.setType(cropType, false);
-        }
-
-        /**
-         * Stocke les items dans un coffre (round-robin)
-         */
-        private void deposit(Collection<ItemStack> items) {
-            if (chestBlocks.isEmpty()) {
-                return;
-            }
-            Block chestB = chestBlocks.get(depositIndex % chestBlocks.size());
-            depositIndex++;
-
-            if (chestB.getType() == Material.CHEST) {
-                Chest c = (Chest) chestB.getState();
-                for (ItemStack drop : items) {
-                    c.getInventory().addItem(drop);
-                }
-            }
+            setState(plot, cropCode(cropType), 0);
         }
 
         /* ----------------- Vérification coffres cassés ------------------- */
@@ -590,6 +1370,14 @@ public final class Agriculture implements CommandExecutor, Listener {
             map.put("z", baseZ);
             map.put("width",  width);
             map.put("length", length);
+            map.put("plotsPerSecond", maxPlotsPerSecond);
+            if (!pendingItems.isEmpty()) {
+                Map<String, Object> pending = new LinkedHashMap<>();
+                for (Map.Entry<Material, Long> e : pendingItems.entrySet()) {
+                    pending.put(e.getKey().name(), e.getValue());
+                }
+                map.put("pendingItems", pending);
+            }
             return map;
         }
 
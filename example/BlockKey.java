@@ -0,0 +1,34 @@
+package org.example;
+
+/**
+ * Encodage compact d'une position de bloc (x, y, z) dans un seul long.
+ * Même disposition que le BlockPos vanilla :
+ *  - x sur 26 bits (bits 38..63)
+ *  - z sur 26 bits (bits 12..37)
+ *  - y sur 12 bits (bits 0..11)
+ * Évite d'allouer des Block/Location pour mémoriser des positions.
+ */
+public final class BlockKey {
+
+    private BlockKey() {
+    }
+
+    /** Compacte (x, y, z) dans un long. */
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38)
+                | ((long) (z & 0x3FFFFFF) << 12)
+                | (y & 0xFFFL);
+    }
+
+    public static int x(long key) {
+        return (int) (key >> 38);
+    }
+
+    public static int y(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    public static int z(long key) {
+        return (int) (key << 26 >> 38);
+    }
+}
@@ -2,10 +2,12 @@ package org.example;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
 import org.bukkit.block.Chest;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -17,9 +19,12 @@ import org.bukkit.entity.IronGolem;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Villager;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.world.StructureGrowEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
@@ -36,15 +41,34 @@ import java.util.*;
  *  1) Le joueur reçoit un bâton "Sélecteur de forêt".
  *  2) Il clique 2 blocs (à la même hauteur) pour définir la zone.
  *  3) Le plugin crée une session forestière (cadre, coffres, PNJ "Forestier", 2 golems).
- *  4) Les arbres poussent (en vanilla). Dès qu'un sapling se transforme en LOG/LEAVES, on le récolte (BFS).
- *  5) On replante automatiquement un sapling à l'emplacement d'origine.
+ *  4) Les arbres poussent (en vanilla). StructureGrowEvent donne la liste exacte des blocs de l'arbre :
+ *     elle sert de manifeste de récolte. En secours (arbre poussé sans événement), flood fill
+ *     sur ChunkSnapshot hors du thread principal (TreeScan).
+ *     Mode "feuilles" (sur activation) : seules les bûches sont abattues, les feuilles se décomposent
+ *     naturellement et leurs drops vont directement aux coffres (/foret feuilles).
+ *  5) Un pipeline d'abattage par arbre poussé, tous avancés en parallèle sous un budget de blocs/tick
+ *     par forêt (/foret debit) ; chacun replante son sapling à l'emplacement d'origine.
  *  6) Si tous les coffres sont cassés, la forêt n'est plus active (PNJ et golems disparaissent).
- *  7) Persistance complète dans forests.yml (y compris la file BFS).
+ *  7) Persistance complète dans forests.yml (y compris les pipelines en cours).
  */
 public final class Foret implements CommandExecutor, Listener {
 
     private static final String FORET_SELECTOR_NAME = ChatColor.GOLD + "Sélecteur de forêt";
 
+    // Bûches et feuilles (toutes essences), calculé une fois
+    private static final Set<Material> LOGS = EnumSet.noneOf(Material.class);
+    private static final Set<Material> LOGS_AND_LEAVES = EnumSet.noneOf(Material.class);
+    static {
+        for (Material m : Material.values()) {
+            if (m.name().endsWith("_LOG")) {
+                LOGS.add(m);
+                LOGS_AND_LEAVES.add(m);
+            } else if (m.name().endsWith("_LEAVES")) {
+                LOGS_AND_LEAVES.add(m);
+            }
+        }
+    }
+
     private final JavaPlugin plugin;
 
     // Liste de toutes les sessions actives
@@ -78,13 +102,25 @@ public final class Foret implements CommandExecutor, Listener {
     /* ========================================================= */
     @Override
     public boolean onCommand(CommandSender sender, Command cmd, String label, String[] args) {
-        if (!(sender instanceof Player player)) {
-            sender.sendMessage(ChatColor.RED + "Commande réservée aux joueurs.");
+        if (!cmd.getName().equalsIgnoreCase("foret")) {
+            return false;
+        }
+
+        // Sous-commande "feuilles"
+        if (args.length >= 1 && args[0].equalsIgnoreCase("feuilles")) {
+            handleLeavesCommand(sender, args);
             return true;
         }
 
-        if (!cmd.getName().equalsIgnoreCase("foret")) {
-            return false;
+        // Sous-commande "debit"
+        if (args.length >= 1 && args[0].equalsIgnoreCase("debit")) {
+            handleRateCommand(sender, args);
+            return true;
+        }
+
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage(ChatColor.RED + "Commande réservée aux joueurs.");
+            return true;
         }
 
         // Donne le bâton spécial
@@ -98,6 +134,98 @@ public final class Foret implements CommandExecutor, Listener {
         return true;
     }
 
+    /**
+     * /foret feuilles                : liste les forêts et leur mode de récolte
+     * /foret feuilles <n> <on|off>   : on = bûches seules, les feuilles se décomposent (op)
+     */
+    private void handleLeavesCommand(CommandSender sender, String[] args) {
+        if (args.length == 1) {
+            if (sessions.isEmpty()) {
+                sender.sendMessage(ChatColor.YELLOW + "Aucune forêt active.");
+                return;
+            }
+            for (int i = 0; i < sessions.size(); i++) {
+                ForestSession fs = sessions.get(i);
+                sender.sendMessage(ChatColor.AQUA + "#" + (i + 1) + " " + fs.describe() + ChatColor.WHITE + " : "
+                        + (fs.leafDecay ? "bûches seules, feuilles décomposées" : "bûches et feuilles"));
+            }
+            return;
+        }
+        if (!sender.isOp()) {
+            sender.sendMessage(ChatColor.RED + "Seul un opérateur peut changer le mode de récolte.");
+            return;
+        }
+        if (args.length < 3 || !(args[2].equalsIgnoreCase("on") || args[2].equalsIgnoreCase("off"))) {
+            sender.sendMessage(ChatColor.RED + "Usage : /foret feuilles <n° de forêt> <on|off>");
+            return;
+        }
+        int index;
+        try {
+            index = Integer.parseInt(args[1]) - 1;
+        } catch (NumberFormatException e) {
+            sender.sendMessage(ChatColor.RED + "Numéro de forêt invalide : " + args[1]);
+            return;
+        }
+        if (index < 0 || index >= sessions.size()) {
+            sender.sendMessage(ChatColor.RED + "Forêt introuvable (1 à " + sessions.size() + ").");
+            return;
+        }
+        ForestSession fs = sessions.get(index);
+        fs.leafDecay = args[2].equalsIgnoreCase("on");
+        saveAllSessions();
+        sender.sendMessage(ChatColor.GREEN + "Forêt #" + (index + 1) + " : "
+                + (fs.leafDecay ? "bûches seules (prochains arbres)." : "bûches et feuilles (prochains arbres)."));
+    }
+
+    /**
+     * /foret debit                   : liste les forêts, leurs abattages en cours et leur débit
+     * /foret debit <n> <blocs/tick>  : règle le maximum de blocs abattus par tick de la forêt n (op)
+     */
+    private void handleRateCommand(CommandSender sender, String[] args) {
+        if (args.length == 1) {
+            if (sessions.isEmpty()) {
+                sender.sendMessage(ChatColor.YELLOW + "Aucune forêt active.");
+                return;
+            }
+            for (int i = 0; i < sessions.size(); i++) {
+                ForestSession fs = sessions.get(i);
+                sender.sendMessage(ChatColor.AQUA + "#" + (i + 1) + " " + fs.describe() + ChatColor.WHITE + " : "
+                        + fs.fellingCount() + " arbre(s) en cours, " + fs.pendingBlocks() + " bloc(s) restant(s), "
+                        + fs.fellBudget.getCurrent() + "/" + fs.fellBudget.getMaxPerTick() + " bloc(s)/tick");
+            }
+            return;
+        }
+        if (!sender.isOp()) {
+            sender.sendMessage(ChatColor.RED + "Seul un opérateur peut modifier le débit.");
+            return;
+        }
+        if (args.length < 3) {
+            sender.sendMessage(ChatColor.RED + "Usage : /foret debit <n° de forêt> <blocs/tick>");
+            return;
+        }
+        int index;
+        int rate;
+        try {
+            index = Integer.parseInt(args[1]) - 1;
+            rate = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            sender.sendMessage(ChatColor.RED + "Nombres invalides.");
+            return;
+        }
+        if (index < 0 || index >= sessions.size()) {
+            sender.sendMessage(ChatColor.RED + "Forêt introuvable (1 à " + sessions.size() + ").");
+            return;
+        }
+        if (rate < 1 || rate > ForestSession.MAX_BLOCKS_PER_TICK) {
+            sender.sendMessage(ChatColor.RED + "Débit entre 1 et " + ForestSession.MAX_BLOCKS_PER_TICK + " blocs/tick.");
+            return;
+        }
+        ForestSession fs = sessions.get(index);
+        fs.fellBudget.setMaxPerTick(rate);
+        saveAllSessions();
+        sender.sendMessage(ChatColor.GREEN + "Forêt #" + (index + 1) + " : " + rate + " bloc(s)/tick max.");
+    }
+
     /**
      * Donne un bâton nommé "Sélecteur de forêt" au joueur.
      */
@@ -238,6 +366,40 @@ public final class Foret implements CommandExecutor, Listener {
         }
     }
 
+    /* ========================================================= */
+    /*      POUSSE DES ARBRES (StructureGrowEvent)               */
+    /* ========================================================= */
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onStructureGrow(StructureGrowEvent event) {
+        Location loc = event.getLocation();
+        for (ForestSession fs : sessions) {
+            int spot = fs.spotIndexAt(loc);
+            if (spot >= 0) {
+                fs.onTreeGrown(spot, event.getBlocks());
+                break;
+            }
+        }
+    }
+
+    /* ========================================================= */
+    /*      DÉCOMPOSITION DES FEUILLES (LeavesDecayEvent)        */
+    /* ========================================================= */
+    /**
+     * Forêt en mode "feuilles" : la feuille disparaît sans entité item,
+     * ses drops sont mis de côté pour les coffres de la forêt.
+     */
+    @EventHandler(ignoreCancelled = true)
+    public void onLeavesDecay(LeavesDecayEvent event) {
+        Block leaf = event.getBlock();
+        for (ForestSession fs : sessions) {
+            if (fs.leafDecay && fs.contains(leaf)) {
+                event.setCancelled(true);
+                fs.captureDecay(leaf);
+                return;
+            }
+        }
+    }
+
     /* ========================================================= */
     /*                      PERSISTANCE                          */
     /* ========================================================= */
@@ -285,40 +447,77 @@ public final class Foret implements CommandExecutor, Listener {
                     List.of("Forestier", "Golem Forestier"));
 
             ForestSession fs = new ForestSession(plugin, origin, width, length);
+            fs.leafDecay = sec.getBoolean("leafDecay", false);
+            fs.fellBudget.setMaxPerTick(sec.getInt("blocksPerTick", ForestSession.DEFAULT_BLOCKS_PER_TICK));
+            ConfigurationSection pendingSec = sec.getConfigurationSection("pendingItems");
+            if (pendingSec != null) {
+                for (String name : pendingSec.getKeys(false)) {
+                    Material m = Material.matchMaterial(name);
+                    if (m != null) {
+                        fs.pendingItems.put(m, pendingSec.getLong(name));
+                    }
+                }
+            }
 
-            // BFS (harvestQueue)
-            List<String> harvestList = sec.getStringList("harvestQueue");
-            if (!harvestList.isEmpty()) {
-                for (String coords : harvestList) {
-                    String[] c = coords.split(",");
-                    if (c.length == 3) {
-                        try {
-                            int hx = Integer.parseInt(c[0]);
-                            int hy = Integer.parseInt(c[1]);
-                            int hz = Integer.parseInt(c[2]);
-                            Block b = w.getBlockAt(hx, hy, hz);
-                            fs.harvestQueue.add(b);
-                        } catch (NumberFormatException ignored) { }
+            // Pipelines d'abattage en cours
+            ConfigurationSection fellSec = sec.getConfigurationSection("fellings");
+            if (fellSec != null) {
+                for (String fk : fellSec.getKeys(false)) {
+                    ConfigurationSection felling = fellSec.getConfigurationSection(fk);
+                    if (felling == null) continue;
+                    int spot = felling.getInt("spot", -1);
+                    if (felling.contains("blocks")) {
+                        // Décodée seulement quand le pipeline reprend
+                        fs.addPackedFelling(spot, felling.getString("blocks", ""), felling.getInt("size"));
+                    } else {
+                        fs.addFelling(spot, parseKeys(felling.getStringList("queue")));
                     }
                 }
             }
 
-            // replantLocation
-            if (sec.contains("replantLocation")) {
-                List<Integer> rl = sec.getIntegerList("replantLocation");
-                if (rl.size() == 3) {
-                    int rx = rl.get(0);
-                    int ry = rl.get(1);
-                    int rz = rl.get(2);
-                    fs.replantLocation = w.getBlockAt(rx, ry, rz);
+            // Arbres inachevés
+            ConfigurationSection restSec = sec.getConfigurationSection("unfinishedTrees");
+            if (restSec != null) {
+                for (String spot : restSec.getKeys(false)) {
+                    try {
+                        fs.addUnfinished(Integer.parseInt(spot), restSec.getString(spot, ""));
+                    } catch (NumberFormatException ignored) {
+                        // clé invalide : l'arbre sera simplement replanté
+                    }
                 }
             }
 
+            // Ancien format : une seule file (harvestQueue) + replantLocation
+            List<String> harvestList = sec.getStringList("harvestQueue");
+            List<Integer> rl = sec.getIntegerList("replantLocation");
+            if (!harvestList.isEmpty() || rl.size() == 3) {
+                int spot = rl.size() == 3 ? fs.spotIndexAt(new Location(w, rl.get(0), rl.get(1), rl.get(2))) : -1;
+                fs.addFelling(spot, parseKeys(harvestList));
+            }
+
             Bukkit.getScheduler().runTaskLater(plugin, fs::start, 20L);
             sessions.add(fs);
             loaded++;
         }
         plugin.getLogger().info("[Foret] Restauré " + loaded + " forêt(s).");
+    }
+
+    /** Liste de "x,y,z" -> positions compactées (les entrées invalides sont ignorées). */
+    private static long[] parseKeys(List<String> list) {
+        long[] keys = new long[list.size()];
+        int n = 0;
+        for (String coords : list) {
+            String[] c = coords.split(",");
+            if (c.length == 3) {
+                try {
+                    int hx = Integer.parseInt(c[0]);
+                    int hy = Integer.parseInt(c[1]);
+                    int hz = Integer.parseInt(c[2]);
+                    keys[n++] = BlockKey.pack(hx, hy, hz);
+                } catch (NumberFormatException ignored) { }
+            }
+        }
+        return Arrays.copyOf(keys, n);
     }
 
     public void stopAllForests() {
@@ -326,6 +525,14 @@ public final class Foret implements CommandExecutor, Listener {
             fs.stop();
         }
         sessions.clear();
+    }
+
+    static boolean isLogOrLeaves(Material m) {
+        return LOGS_AND_LEAVES.contains(m);
+    }
+
+    static boolean isLog(Material m) {
+        return LOGS.contains(m);
     }
 
     private void clearZone(Location origin, int width, int length, List<String> names) {
@@ -367,6 +574,12 @@ public final class Foret implements CommandExecutor, Listener {
         private static final Material FRAME_BLOCK  = Material.OAK_LOG;
         private static final Material LIGHT_BLOCK  = Material.SEA_LANTERN;
         private static final int FOREST_HEIGHT     = 20;
+        private static final int SPOT_SPACING      = 6;
+        // Filet de sécurité : un spot relu toutes les FALLBACK_PERIOD secondes
+        private static final int FALLBACK_PERIOD   = 30;
+        // Débit d'abattage de la forêt (tous pipelines confondus), adapté au MSPT
+        static final int DEFAULT_BLOCKS_PER_TICK   = 2;
+        static final int MAX_BLOCKS_PER_TICK       = 16;
 
         private static final List<Material> SAPLINGS = Arrays.asList(
                 Material.OAK_SAPLING,
@@ -393,10 +606,26 @@ public final class Foret implements CommandExecutor, Listener {
         // Spots de saplings
         private final List<Block> saplingSpots = new ArrayList<>();
         private int spotIndex = 0;
+        private int fallbackTicks = 0;
+
+        // Pipelines d'abattage (un par arbre poussé), avancés en round-robin
+        private final ArrayDeque<Felling> fellings = new ArrayDeque<>();
+        final TickBudget fellBudget = new TickBudget(DEFAULT_BLOCKS_PER_TICK);
+        private int loopTicks = 0;
+
+        // Flood fill de secours (worker, tampons réutilisés d'un arbre à l'autre)
+        private final TreeScan treeScan;
+        private boolean scanning = false;
+        // Arbres trop grands pour un seul flood fill : spot -> bûches restées debout à la frontière.
+        // Le spot n'est pas replanté ; le filet de sécurité reprend l'arbre depuis ces bûches.
+        private final Map<Integer, long[]> unfinished = new HashMap<>();
+
+        // Mode "feuilles" (désactivé par défaut) : on n'abat que les bûches, les feuilles se décomposent d'elles-mêmes
+        boolean leafDecay = false;
+        private final List<ItemStack> decayDrops = new ArrayList<>();
 
-        // BFS
-        private final Queue<Block> harvestQueue = new LinkedList<>();
-        private Block replantLocation = null;
+        // Items pas encore rangés (coffres pleins ou dans des chunks déchargés), retentés chaque seconde
+        final Map<Material, Long> pendingItems = new EnumMap<>(Material.class);
 
         public ForestSession(JavaPlugin plugin, Location origin, int width, int length) {
             this.plugin = plugin;
@@ -406,6 +635,8 @@ public final class Foret implements CommandExecutor, Listener {
             this.baseZ  = origin.getBlockZ();
             this.width  = width;
             this.length = length;
+            this.treeScan = new TreeScan(baseX, baseX + width - 1, baseY, baseY + FOREST_HEIGHT,
+                    baseZ, baseZ + length - 1);
         }
 
         public void start() {
@@ -460,7 +691,7 @@ public final class Foret implements CommandExecutor, Listener {
                 for (int dz = 0; dz < length; dz++) {
                     int x = baseX + dx;
                     int z = baseZ + dz;
-                    if (dx % 6 == 0 && dz % 6 == 0) {
+                    if (dx % SPOT_SPACING == 0 && dz % SPOT_SPACING == 0) {
                         Material sap = randomSapling();
                         setBlock(x, baseY + 1, z, sap);
                         saplingSpots.add(world.getBlockAt(x, baseY + 1, z));
@@ -537,11 +768,77 @@ public final class Foret implements CommandExecutor, Listener {
             }
         }
 
-        /* --------------------- Boucle 1 bloc/s --------------------- */
+        /**
+         * Abattage d'un arbre : positions compactées (BlockKey) à casser dans l'ordre,
+         * puis replantage de son spot.
+         */
+        static final class Felling {
+            // Nombre max de positions inspectées par appel (blocs déjà cassés depuis le manifeste)
+            private static final int MAX_PROBES_PER_CALL = 64;
+
+            final int spot;      // -1 : rien à replanter (ancienne sauvegarde sans spot)
+            long[] queue;        // null tant que la file relue de forests.yml n'est pas décodée
+            int next = 0;
+
+            // File encodée (forests.yml), gardée telle quelle jusqu'à la reprise
+            String packed;
+            int packedSize;
+
+            Felling(int spot, long[] queue) {
+                this.spot = spot;
+                this.queue = queue;
+            }
+
+            Felling(int spot, String packed, int packedSize) {
+                this.spot = spot;
+                this.packed = packed;
+                this.packedSize = packedSize;
+            }
+
+            /**
+             * Prochain bloc encore debout, ou null si la file est finie, si la prochaine position
+             * est dans un chunk déchargé (pause : rien n'est chargé) ou si le quota est épuisé.
+             */
+            Block nextBlock(World world) {
+                for (int probes = 0; probes < MAX_PROBES_PER_CALL && next < queue.length; probes++) {
+                    long key = queue[next];
+                    int x = BlockKey.x(key), z = BlockKey.z(key);
+                    if (!world.isChunkLoaded(x >> 4, z >> 4)) {
+                        return null;
+                    }
+                    next++;
+                    // Bloc déjà cassé (joueur, manifeste périmé...) : on passe au suivant
+                    Block b = world.getBlockAt(x, BlockKey.y(key), z);
+                    if (isLogOrLeaves(b.getType())) {
+                        return b;
+                    }
+                }
+                return null;
+            }
+
+            boolean isDone() {
+                return next >= queue.length;
+            }
+
+            int remaining() {
+                return queue == null ? packedSize : queue.length - next;
+            }
+        }
+
+        /* --------------------- Boucle (chaque tick) --------------------- */
         private void runForestLoop() {
             forestTask = new BukkitRunnable() {
                 @Override
                 public void run() {
+                    // Abattage : chaque tick, sous le budget de la forêt
+                    if (!fellings.isEmpty()) {
+                        fellTick();
+                    }
+
+                    // Le reste une fois par seconde
+                    if (++loopTicks < 20) return;
+                    loopTicks = 0;
+
                     // PNJ
                     if (forester == null || forester.isDead()) {
                         spawnOrRespawnForester();
@@ -551,26 +848,162 @@ public final class Foret implements CommandExecutor, Listener {
                     // Golems
                     spawnOrRespawnGolems();
 
-                    // BFS en cours ou replantage en attente ?
-                    if (!harvestQueue.isEmpty() || replantLocation != null) {
-                        harvestNextBlock();
-                        return;
-                    }
+                    // Drops des feuilles décomposées depuis la dernière seconde
+                    if (!decayDrops.isEmpty()) {
+                        deposit(new ArrayList<>(decayDrops));
+                        decayDrops.clear();
+                    }
+                    // Items en attente d'un coffre libre et chargé
+                    if (!pendingItems.isEmpty()) {
+                        flushPendingItems();
+                    }
 
-                    // Sinon, on check un sapling
-                    if (saplingSpots.isEmpty()) return;
-                    Block saplingBlock = saplingSpots.get(spotIndex);
+                    // Filet de sécurité (arbre poussé chunk déchargé, avant un redémarrage...)
+                    // Un seul flood fill à la fois (tampons partagés)
+                    if (scanning || saplingSpots.isEmpty() || ++fallbackTicks < FALLBACK_PERIOD) return;
+                    fallbackTicks = 0;
+                    int spot = spotIndex;
+                    Block saplingBlock = saplingSpots.get(spot);
                     spotIndex = (spotIndex + 1) % saplingSpots.size();
+                    if (hasFelling(spot)) return;
 
-                    // Si ce bloc est devenu LOG ou LEAVES => BFS
+                    // Arbre abattu en partie (budget du flood fill épuisé) => on reprend ses bûches restantes
+                    long[] rest = unfinished.get(spot);
+                    if (rest != null) {
+                        scanTree(spot, rest);
+                        return;
+                    }
+                    if (!world.isChunkLoaded(saplingBlock.getX() >> 4, saplingBlock.getZ() >> 4)) return;
+
+                    // Si ce bloc est devenu LOG ou LEAVES sans pipeline => flood fill
                     Material mat = saplingBlock.getType();
                     if (isLogOrLeaves(mat)) {
-                        replantLocation = saplingBlock; // on stocke pour replanter
-                        buildHarvestQueue(saplingBlock);
+                        scanTree(spot, new long[] {BlockKey.pack(saplingBlock.getX(), saplingBlock.getY(), saplingBlock.getZ())});
                     }
                 }
             };
-            forestTask.runTaskTimer(plugin, 20L, 20L);
+            forestTask.runTaskTimer(plugin, 20L, 1L);
+        }
+
+        /**
+         * Avance les pipelines à tour de rôle, un bloc chacun, jusqu'à épuiser le budget du tick.
+         * Un pipeline terminé replante son spot. Drops déposés en une fois.
+         * Un pipeline dont le prochain bloc (ou le spot) est dans un chunk déchargé reste en pause :
+         * aucun chunk n'est chargé pour l'abattage.
+         */
+        private void fellTick() {
+            int allowance = fellBudget.nextAllowance();
+            List<ItemStack> drops = new ArrayList<>();
+            Block last = null;
+            int idle = 0;
+            while (allowance > 0 && idle < fellings.size()) {
+                Felling felling = fellings.poll();
+                if (felling.queue == null) {
+                    felling.queue = decodeQueue(felling.packed, felling.packedSize);
+                    felling.packed = null;
+                }
+                Block block = felling.nextBlock(world);
+                if (block == null) {
+                    if (felling.isDone()) {
+                        // File terminée => replant (sauf arbre inachevé : le reste sera rescanné)
+                        if (felling.spot < 0 || felling.spot >= saplingSpots.size() || unfinished.containsKey(felling.spot)) {
+                            continue;
+                        }
+                        Block spotBlock = saplingSpots.get(felling.spot);
+                        if (world.isChunkLoaded(spotBlock.getX() >> 4, spotBlock.getZ() >> 4)) {
+                            spotBlock.setType(randomSapling());
+                            continue;
+                        }
+                    }
+                    // En pause (chunk déchargé) ou quota épuisé : on repasse plus tard
+                    fellings.add(felling);
+                    idle++;
+                    continue;
+                }
+                idle = 0;
+                drops.addAll(block.getDrops());
+                block.setType(Material.AIR);
+                last = block;
+                allowance--;
+                fellings.add(felling);
+            }
+            if (last == null) return;
+
+            // Téléporte le PNJ forestier au-dessus du dernier bloc
+            if (forester != null && !forester.isDead()) {
+                forester.teleport(last.getLocation().add(0.5, 1.0, 0.5));
+            }
+            // Stocke les items en coffre
+            deposit(drops);
+        }
+
+        void addFelling(int spot, long[] queue) {
+            if (queue.length == 0 && spot < 0) return;
+            fellings.add(new Felling(spot, queue));
+        }
+
+        void addPackedFelling(int spot, String packed, int size) {
+            if (packed.isEmpty() && spot < 0) return;
+            fellings.add(new Felling(spot, packed, size));
+        }
+
+        void addUnfinished(int spot, String packed) {
+            long[] seeds = decodeQueue(packed, TreeScan.MAX_SEEDS);
+            if (seeds.length > 0 && spot >= 0) {
+                unfinished.put(spot, seeds);
+            }
+        }
+
+        private boolean hasFelling(int spot) {
+            for (Felling felling : fellings) {
+                if (felling.spot == spot) return true;
+            }
+            return false;
+        }
+
+        int fellingCount() {
+            return fellings.size();
+        }
+
+        long pendingBlocks() {
+            long n = 0;
+            for (Felling felling : fellings) {
+                n += felling.remaining();
+            }
+            return n;
+        }
+
+        /* --------------------- Manifestes (StructureGrowEvent) --------------------- */
+
+        /** Indice du spot de sapling à cette position, -1 si ce n'en est pas un. */
+        int spotIndexAt(Location loc) {
+            if (!world.equals(loc.getWorld()) || loc.getBlockY() != baseY + 1) return -1;
+            int dx = loc.getBlockX() - baseX;
+            int dz = loc.getBlockZ() - baseZ;
+            if (dx < 0 || dx >= width || dz < 0 || dz >= length) return -1;
+            if (dx % SPOT_SPACING != 0 || dz % SPOT_SPACING != 0) return -1;
+            // Même ordre que buildTreesGrid() : dx puis dz
+            int spotsPerRow = (length + SPOT_SPACING - 1) / SPOT_SPACING;
+            return (dx / SPOT_SPACING) * spotsPerRow + dz / SPOT_SPACING;
+        }
+
+        /**
+         * Un sapling de la forêt vient de pousser : les blocs de l'arbre dans la zone (bûches,
+         * plus les feuilles hors mode "feuilles") deviennent le manifeste de son pipeline.
+         * Les blocs ne sont posés qu'après l'événement : l'abattage démarre au tick suivant.
+         */
+        void onTreeGrown(int spot, List<BlockState> blocks) {
+            if (forestTask == null || spot >= saplingSpots.size() || hasFelling(spot)) return;
+            long[] manifest = new long[blocks.size()];
+            int n = 0;
+            for (BlockState state : blocks) {
+                Material mat = state.getType();
+                if ((leafDecay ? isLog(mat) : isLogOrLeaves(mat)) && inBounds(state.getX(), state.getY(), state.getZ())) {
+                    manifest[n++] = BlockKey.pack(state.getX(), state.getY(), state.getZ());
+                }
+            }
+            if (n == 0) return;
+            addFelling(spot, Arrays.copyOf(manifest, n));
         }
 
         private void keepForesterInArea() {
@@ -591,104 +1024,100 @@ public final class Foret implements CommandExecutor, Listener {
             }
         }
 
-        /* --------------------- BFS --------------------- */
-        private void buildHarvestQueue(Block start) {
-            harvestQueue.clear();
-            Set<Block> visited = new HashSet<>();
-            Queue<Block> toVisit = new LinkedList<>();
-            toVisit.add(start);
+        /* --------------------- Flood fill de secours --------------------- */
 
-            final int MAX_RADIUS = 50;
-
-            while (!toVisit.isEmpty()) {
-                Block current = toVisit.poll();
-                if (current == null) continue;
-                if (!visited.add(current)) continue;
-
-                Material mat = current.getType();
-                if (!isLogOrLeaves(mat)) continue;
-                if (!inBounds(current.getLocation())) continue;
-
-                // On l'ajoute à la récolte
-                harvestQueue.add(current);
-
-                // Parcourt les 6 directions
-                Location loc = current.getLocation();
-                int dx = loc.getBlockX() - start.getX();
-                int dy = loc.getBlockY() - start.getY();
-                int dz = loc.getBlockZ() - start.getZ();
-                // Limite de sécurité
-                if (Math.abs(dx) > MAX_RADIUS || Math.abs(dy) > MAX_RADIUS || Math.abs(dz) > MAX_RADIUS) {
-                    continue;
+        /**
+         * Photographie les chunks autour du premier départ (thread principal), remplit l'arbre
+         * sur un worker, puis seul le tableau de positions revient sur le thread principal.
+         * Si le budget de blocs est épuisé, les bûches non parcourues sont gardées pour ce spot.
+         */
+        private void scanTree(int spot, long[] seeds) {
+            int sx = BlockKey.x(seeds[0]), sy = BlockKey.y(seeds[0]), sz = BlockKey.z(seeds[0]);
+            int minX = Math.max(baseX, sx - TreeScan.MAX_RADIUS);
+            int maxX = Math.min(baseX + width - 1, sx + TreeScan.MAX_RADIUS);
+            int minZ = Math.max(baseZ, sz - TreeScan.MAX_RADIUS);
+            int maxZ = Math.min(baseZ + length - 1, sz + TreeScan.MAX_RADIUS);
+            int minCX = minX >> 4, minCZ = minZ >> 4;
+
+            ChunkSnapshot[][] snapshots = new ChunkSnapshot[(maxX >> 4) - minCX + 1][(maxZ >> 4) - minCZ + 1];
+            for (int i = 0; i < snapshots.length; i++) {
+                for (int j = 0; j < snapshots[i].length; j++) {
+                    // Chunk déchargé : on réessaiera au prochain passage sur ce spot
+                    if (!world.isChunkLoaded(minCX + i, minCZ + j)) return;
+                    snapshots[i][j] = world.getChunkAt(minCX + i, minCZ + j).getChunkSnapshot(false, false, false);
                 }
+            }
 
-                // Ajoute voisins
-                for (int[] dir : new int[][]{{1,0,0},{-1,0,0},{0,1,0},{0,-1,0},{0,0,1},{0,0,-1}}) {
-                    Block nb = current.getRelative(dir[0], dir[1], dir[2]);
-                    if (!visited.contains(nb)) {
-                        toVisit.add(nb);
+            scanning = true;
+            boolean logsOnly = leafDecay;
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                long[] keys = treeScan.fill(snapshots, minCX, minCZ, seeds, logsOnly);
+                long[] rest = treeScan.rest();
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    scanning = false;
+                    if (forestTask == null || hasFelling(spot)) return;
+                    boolean resumed = unfinished.remove(spot) != null;
+                    if (rest.length > 0) {
+                        unfinished.put(spot, rest);
                     }
-                }
-            }
+                    // Reprise sans plus rien à abattre : la file vide replante le spot
+                    if (keys.length == 0 && !resumed) return;
+                    addFelling(spot, keys);
+                });
+            });
+        }
+        boolean contains(Block b) {
+            return world.equals(b.getWorld()) && inBounds(b.getX(), b.getY(), b.getZ());
+        }
+
+        /** Feuille de la forêt qui se décompose : drops gardés pour les coffres, pas d'entité item. */
+        void captureDecay(Block leaf) {
+            decayDrops.addAll(leaf.getDrops());
+            // Avec physique : les feuilles voisines recalculent leur distance et continuent de tomber
+            leaf.setType(Material.AIR);
         }
-        private boolean inBounds(Location loc) {
-            int x = loc.getBlockX();
-            int y = loc.getBlockY();
-            int z = loc.getBlockZ();
+
+        private boolean inBounds(int x, int y, int z) {
             if (x < baseX || x >= baseX + width) return false;
             if (z < baseZ || z >= baseZ + length) return false;
             // On limite la hauteur
             if (y < baseY || y > baseY + FOREST_HEIGHT) return false;
             return true;
         }
-        private boolean isLogOrLeaves(Material m) {
-            return m.name().endsWith("_LOG") || m.name().endsWith("_LEAVES");
-        }
 
         /**
-         * Récolte un bloc par tick.
-         * Quand BFS est fini => replant.
+         * Ajoute les items dans les coffres (round-robin), en passant au suivant quand un coffre
+         * est plein. Les coffres dont le chunk est déchargé sont sautés (pas de chargement forcé) ;
+         * le reste est mis de côté s'il existe encore au moins un coffre.
          */
-        private void harvestNextBlock() {
-            Block block = harvestQueue.poll();
-            if (block == null) {
-                // BFS terminé => replant
-                if (replantLocation != null) {
-                    // On replante un nouveau sapling
-                    replantLocation.setType(randomSapling());
-                    replantLocation = null;
+        private void deposit(List<ItemStack> drops) {
+            for (int tries = 0; tries < chestBlocks.size() && !drops.isEmpty(); tries++) {
+                Block chestBlock = chestBlocks.get(depositIndex % chestBlocks.size());
+                depositIndex++;
+                if (!world.isChunkLoaded(chestBlock.getX() >> 4, chestBlock.getZ() >> 4)) continue;
+
+                if (chestBlock.getType() == Material.CHEST) {
+                    Inventory inv = ((Chest) chestBlock.getState()).getInventory();
+                    drops = new ArrayList<>(inv.addItem(drops.toArray(new ItemStack[0])).values());
                 }
-                return;
             }
-
-            // Téléporte le PNJ forestier au-dessus
-            if (forester != null && !forester.isDead()) {
-                forester.teleport(block.getLocation().add(0.5, 1.0, 0.5));
+            if (chestBlocks.isEmpty()) return;
+            for (ItemStack left : drops) {
+                pendingItems.merge(left.getType(), (long) left.getAmount(), Long::sum);
             }
-
-            // Casse le bloc
-            Collection<ItemStack> drops = block.getDrops();
-            block.setType(Material.AIR);
-
-            // Stocke les items en coffre
-            deposit(new ArrayList<>(drops));
         }
 
-        /**
-         * Ajoute les items dans un coffre (round-robin).
-         */
-        private void deposit(List<ItemStack> drops) {
-            if (drops.isEmpty() || chestBlocks.isEmpty()) return;
-            Block chestBlock = chestBlocks.get(depositIndex % chestBlocks.size());
-            depositIndex++;
-
-            if (chestBlock.getType() == Material.CHEST) {
-                Chest c = (Chest) chestBlock.getState();
-                Inventory inv = c.getInventory();
-                for (ItemStack it : drops) {
-                    inv.addItem(it);
+        /** Range les items en attente, en piles pleines ; ce qui ne passe toujours pas y retourne. */
+        private void flushPendingItems() {
+            List<ItemStack> stacks = new ArrayList<>();
+            for (Map.Entry<Material, Long> e : pendingItems.entrySet()) {
+                int max = Math.max(1, e.getKey().getMaxStackSize());
+                for (long left = e.getValue(); left > 0; left -= max) {
+                    stacks.add(new ItemStack(e.getKey(), (int) Math.min(max, left)));
                 }
             }
+            pendingItems.clear();
+            deposit(stacks);
         }
 
         /* --------------------- Coffres cassés --------------------- */
@@ -704,6 +1133,10 @@ public final class Foret implements CommandExecutor, Listener {
             return !chestBlocks.isEmpty();
         }
 
+        String describe() {
+            return "(" + baseX + ", " + baseY + ", " + baseZ + ") " + width + "x" + length;
+        }
+
         /* --------------------- Persistance: toMap() --------------------- */
         public Map<String, Object> toMap() {
             Map<String, Object> map = new LinkedHashMap<>();
@@ -713,26 +1146,111 @@ public final class Foret implements CommandExecutor, Listener {
             map.put("z", baseZ);
             map.put("width", width);
             map.put("length", length);
-
-            // BFS en cours
-            if (!harvestQueue.isEmpty()) {
-                List<String> list = new ArrayList<>();
-                for (Block b : harvestQueue) {
-                    list.add(b.getX() + "," + b.getY() + "," + b.getZ());
+            map.put("leafDecay", leafDecay);
+            map.put("blocksPerTick", fellBudget.getMaxPerTick());
+
+            // Pipelines d'abattage en cours (reste de la file encodé + spot à replanter)
+            if (!fellings.isEmpty()) {
+                Map<String, Object> fellMap = new LinkedHashMap<>();
+                int i = 0;
+                for (Felling felling : fellings) {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("spot", felling.spot);
+                    entry.put("size", felling.remaining());
+                    entry.put("blocks", felling.queue == null
+                            ? felling.packed
+                            : encodeQueue(felling.queue, felling.next));
+                    fellMap.put(String.valueOf(i++), entry);
                 }
-                map.put("harvestQueue", list);
+                map.put("fellings", fellMap);
             }
-            // replantLocation
-            if (replantLocation != null) {
-                map.put("replantLocation", Arrays.asList(
-                        replantLocation.getX(),
-                        replantLocation.getY(),
-                        replantLocation.getZ()
-                ));
+            // Arbres inachevés (bûches d'où reprendre le flood fill)
+            if (!unfinished.isEmpty()) {
+                Map<String, Object> rest = new LinkedHashMap<>();
+                for (Map.Entry<Integer, long[]> e : unfinished.entrySet()) {
+                    rest.put(String.valueOf(e.getKey()), encodeQueue(e.getValue(), 0));
+                }
+                map.put("unfinishedTrees", rest);
+            }
+            // Items pas encore rangés
+            if (!pendingItems.isEmpty()) {
+                Map<String, Object> pending = new LinkedHashMap<>();
+                for (Map.Entry<Material, Long> e : pendingItems.entrySet()) {
+                    pending.put(e.getKey().name(), e.getValue());
+                }
+                map.put("pendingItems", pending);
             }
             return map;
         }
 
+        /* --------------------- Encodage des files (forests.yml) --------------------- */
+
+        /**
+         * File -> Base64. Chaque position devient un indice local depuis l'origine de la forêt
+         * ((dy * width + dx) * length + dz) ; on écrit l'écart avec l'indice précédent en zigzag
+         * + varint. Les blocs d'un même arbre se suivent : 1 à 2 octets par bloc en général.
+         */
+        private String encodeQueue(long[] queue, int from) {
+            byte[] buf = new byte[16 + (queue.length - from) * 2];
+            int pos = 0;
+            int prev = 0;
+            for (int i = from; i < queue.length; i++) {
+                long key = queue[i];
+                int x = BlockKey.x(key), y = BlockKey.y(key), z = BlockKey.z(key);
+                if (!inBounds(x, y, z)) continue;
+                int local = ((y - baseY) * width + (x - baseX)) * length + (z - baseZ);
+                int delta = local - prev;
+                prev = local;
+
+                int v = (delta << 1) ^ (delta >> 31);
+                if (pos + 5 > buf.length) {
+                    buf = Arrays.copyOf(buf, buf.length * 2);
+                }
+                while ((v & ~0x7F) != 0) {
+                    buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+                    v >>>= 7;
+                }
+                buf[pos++] = (byte) v;
+            }
+            return Base64.getEncoder().encodeToString(Arrays.copyOf(buf, pos));
+        }
+
+        /** Inverse de encodeQueue ; {@code size} ne sert qu'à dimensionner le tableau. */
+        private long[] decodeQueue(String packed, int size) {
+            byte[] buf;
+            try {
+                buf = Base64.getDecoder().decode(packed);
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("[Foret] File d'abattage illisible, ignorée : " + e.getMessage());
+                return new long[0];
+            }
+            long[] keys = new long[Math.max(16, size)];
+            int n = 0;
+            int prev = 0;
+            int pos = 0;
+            while (pos < buf.length) {
+                int v = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = buf[pos++];
+                    v |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0 && pos < buf.length);
+                int local = prev + ((v >>> 1) ^ -(v & 1));
+                prev = local;
+
+                if (n == keys.length) {
+                    keys = Arrays.copyOf(keys, n * 2);
+                }
+                keys[n++] = BlockKey.pack(
+                        baseX + (local / length) % width,
+                        baseY + local / (width * length),
+                        baseZ + local % length);
+            }
+            return Arrays.copyOf(keys, n);
+        }
+
         /* --------------------- Outils internes --------------------- */
         private void setBlock(int x, int y, int z, Material mat) {
             world.getBlockAt(x, y, z).setType(mat, false);
@@ -742,6 +1260,202 @@ public final class Foret implements CommandExecutor, Listener {
         }
     }
 
+    /* ========================================================= */
+    /*  CLASSE TreeScan : flood fill d'un arbre sur ChunkSnapshot */
+    /* ========================================================= */
+    /**
+     * Flood fill sans objet par bloc : positions compactées (BlockKey),
+     * ensemble "visité" à adressage ouvert et file réutilisés d'un arbre à l'autre.
+     * Ne lit que des ChunkSnapshot, donc peut tourner sur un worker ;
+     * une instance ne fait qu'un remplissage à la fois.
+     * Reste dans un seul arbre même quand les canopées se touchent : bûches reliées au tronc
+     * de départ, feuilles à LEAF_REACH pas au plus de ces bûches, MAX_NODES blocs au plus.
+     */
+    static final class TreeScan {
+        // Les plus grands arbres (chênes noirs, sapins géants) tiennent dans ce rayon :
+        // la photographie se limite ainsi à 3x3 chunks au plus
+        static final int MAX_RADIUS = 16;
+        static final int LEAF_REACH = 3;
+        static final int MAX_NODES  = 1024;
+        // Bûches gardées à la frontière quand MAX_NODES est atteint (reprise de l'arbre)
+        static final int MAX_SEEDS  = 64;
+
+        // Limites de la forêt (inclusives)
+        private final int minX, maxX, minY, maxY, minZ, maxZ;
+
+        private final LongSet visited = new LongSet();
+        private long[] queue = new long[256];
+        private byte[] depth = new byte[256]; // pas depuis la bûche la plus proche (0 pour une bûche)
+        private int size;
+        private final long[] rest = new long[MAX_SEEDS]; // bûches refusées faute de budget
+        private int restSize;
+
+        // Contexte du remplissage en cours
+        private ChunkSnapshot[][] snapshots;
+        private int minCX, minCZ, startX, startY, startZ;
+
+        TreeScan(int minX, int maxX, int minY, int maxY, int minZ, int maxZ) {
+            this.minX = minX;
+            this.maxX = maxX;
+            this.minY = minY;
+            this.maxY = maxY;
+            this.minZ = minZ;
+            this.maxZ = maxZ;
+        }
+
+        /**
+         * Arbre dont le tronc passe par les bûches {@code seeds} (le spot, ou la frontière laissée
+         * par un remplissage précédent) : ses bûches puis ses feuilles, par distance.
+         * {@code snapshots} couvre la forêt à MAX_RADIUS du premier départ, indexé [cx - minCX][cz - minCZ].
+         * Avec {@code logsOnly}, seules les bûches sont parcourues et renvoyées.
+         * Si MAX_NODES est atteint, {@link #rest()} donne les bûches voisines restées hors du résultat.
+         */
+        long[] fill(ChunkSnapshot[][] snapshots, int minCX, int minCZ, long[] seeds, boolean logsOnly) {
+            this.snapshots = snapshots;
+            this.minCX = minCX;
+            this.minCZ = minCZ;
+            this.startX = BlockKey.x(seeds[0]);
+            this.startY = BlockKey.y(seeds[0]);
+            this.startZ = BlockKey.z(seeds[0]);
+            visited.clear();
+            size = 0;
+            restSize = 0;
+
+            // Seuls les blocs retenus entrent dans la file : elle sert aussi de résultat
+            // 1) Bûches reliées au tronc (26 voisins : les branches partent en diagonale).
+            //    Une bûche atteinte seulement par des feuilles appartient à un autre arbre.
+            //    Une fois MAX_NODES atteint, on continue seulement pour noter la frontière.
+            for (long seed : seeds) {
+                visit(BlockKey.x(seed), BlockKey.y(seed), BlockKey.z(seed), true, 0);
+            }
+            for (int head = 0; head < size && restSize < MAX_SEEDS; head++) {
+                long key = queue[head];
+                int x = BlockKey.x(key), y = BlockKey.y(key), z = BlockKey.z(key);
+                for (int dx = -1; dx <= 1; dx++) {
+                    for (int dy = -1; dy <= 1; dy++) {
+                        for (int dz = -1; dz <= 1; dz++) {
+                            if (dx != 0 || dy != 0 || dz != 0) {
+                                visit(x + dx, y + dy, z + dz, true, 0);
+                            }
+                        }
+                    }
+                }
+            }
+
+            // 2) Feuilles, en largeur depuis toutes ces bûches (6 voisins, comme la distance vanilla) :
+            //    la canopée voisine, plus loin de nos bûches, n'est pas suivie
+            if (!logsOnly) {
+                for (int head = 0; head < size && size < MAX_NODES; head++) {
+                    int d = depth[head] + 1;
+                    if (d > LEAF_REACH) continue;
+                    long key = queue[head];
+                    int x = BlockKey.x(key), y = BlockKey.y(key), z = BlockKey.z(key);
+                    visit(x + 1, y, z, false, d);
+                    visit(x - 1, y, z, false, d);
+                    visit(x, y + 1, z, false, d);
+                    visit(x, y - 1, z, false, d);
+                    visit(x, y, z + 1, false, d);
+                    visit(x, y, z - 1, false, d);
+                }
+            }
+
+            this.snapshots = null;
+            return Arrays.copyOf(queue, size);
+        }
+
+        /** Bûches laissées hors du dernier remplissage faute de budget (vide si l'arbre est complet). */
+        long[] rest() {
+            return Arrays.copyOf(rest, restSize);
+        }
+
+        /** Retient (x, y, z) si c'est une bûche ({@code log}) ou une feuille, à {@code d} pas. */
+        private void visit(int x, int y, int z, boolean log, int d) {
+            if (size >= MAX_NODES && (!log || restSize >= MAX_SEEDS)) return;
+            if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) return;
+            // Limite de sécurité
+            if (Math.abs(x - startX) > MAX_RADIUS || Math.abs(y - startY) > MAX_RADIUS
+                    || Math.abs(z - startZ) > MAX_RADIUS) return;
+
+            // Seuls les blocs retenus sont marqués : une feuille écartée en 1) reste candidate en 2)
+            long key = BlockKey.pack(x, y, z);
+            if (visited.contains(key)) return;
+            Material mat = snapshots[(x >> 4) - minCX][(z >> 4) - minCZ].getBlockType(x & 15, y, z & 15);
+            if (log ? !isLog(mat) : (isLog(mat) || !isLogOrLeaves(mat))) return;
+            visited.add(key);
+
+            // Budget épuisé : la bûche reste debout et servira de départ à la reprise
+            if (size >= MAX_NODES) {
+                rest[restSize++] = key;
+                return;
+            }
+
+            if (size == queue.length) {
+                queue = Arrays.copyOf(queue, size * 2);
+                depth = Arrays.copyOf(depth, size * 2);
+            }
+            depth[size] = (byte) d;
+            queue[size++] = key;
+        }
+    }
+
+    /**
+     * Ensemble de longs à adressage ouvert (sondage linéaire), vidé sans réallouer.
+     */
+    static final class LongSet {
+        // Aucune position BlockKey atteignable (x = -2^25) ne donne cette valeur
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] slots = new long[1024];
+        private int size;
+
+        LongSet() {
+            Arrays.fill(slots, EMPTY);
+        }
+
+        void clear() {
+            if (size > 0) {
+                Arrays.fill(slots, EMPTY);
+                size = 0;
+            }
+        }
+
+        boolean contains(long key) {
+            int mask = slots.length - 1;
+            int i = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+            while (slots[i] != EMPTY) {
+                if (slots[i] == key) return true;
+                i = (i + 1) & mask;
+            }
+            return false;
+        }
+
+        /** @return false si la valeur y était déjà */
+        boolean add(long key) {
+            if ((size + 1) * 2 > slots.length) {
+                grow();
+            }
+            int mask = slots.length - 1;
+            int i = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+            while (slots[i] != EMPTY) {
+                if (slots[i] == key) return false;
+                i = (i + 1) & mask;
+            }
+            slots[i] = key;
+            size++;
+            return true;
+        }
+
+        private void grow() {
+            long[] old = slots;
+            slots = new long[old.length * 2];
+            Arrays.fill(slots, EMPTY);
+            size = 0;
+            for (long key : old) {
+                if (key != EMPTY) add(key);
+            }
+        }
+    }
+
     /* ========================================================= */
     /*        CLASSE interne Selection (2 coins cliqués)         */
     /* ========================================================= */
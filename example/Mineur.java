@@ -2,6 +2,8 @@ package org.example;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
@@ -18,7 +20,10 @@ import org.bukkit.entity.Villager;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.entity.CreatureSpawnEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
@@ -29,16 +34,37 @@ import org.bukkit.scheduler.BukkitRunnable;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Commande /mineur : sélection de 2 blocs (même Y) pour définir une zone
+ *  - prévision (blocs, matériaux, remplissage des coffres, durée) avant confirmation
+ *    (/mineur confirmer [filon] ou /mineur annuler)
+ *  - mode filon : seuls les filons de minerai sont minés, chacun atteint par un puits 1x1
  *  - cadre en bois
  *  - PNJ "Mineur" + 2 golems
  *  - coffres aux 4 coins
- *  - mine verticalement jusqu'en bas ( -58 )
+ *  - mine verticalement jusqu'en bas ( -58 ), ou seulement dans une bande de Y
+ *    (/mineur <minY> <maxY> ou /mineur -64..-40) avec un puits d'accès 1x1 automatique
+ *  - les grandes zones sont découpées en sous-zones alignées sur les chunks,
+ *    chacune avec son curseur, minées en parallèle sous le même débit
+ *  - sous-zone déchargée : rien n'est lu dans le monde, le temps écoulé est noté
+ *    et le travail dû est rattrapé d'un bloc au rechargement du chunk
+ *  - débit en blocs/tick par session, réduit si le serveur dépasse 45 ms/tick
+ *    (/mineur debit [n° de session] [blocs/tick])
+ *  - le sable / gravier est retiré du haut vers le bas avant son support (aucun bloc qui tombe)
+ *  - option d'étanchéité : bouche l'eau / la lave autour du prochain bloc
+ *    (/mineur etanche <n° de session> <on|off>)
+ *  - fosses protégées : aucun spawn naturel de monstre dans une zone minée (active ou terminée)
+ *    (/mineur fosses [oublier <n>])
+ *  - filtre de stockage : ne garder que les minerais (+ liste blanche), le reste est détruit et compté
+ *    (/mineur filtre <n° de session> <tout|minerais|garder|oublier|stats> [matériau])
  *
  * Persistance dans sessions.yml
- *  - On y stocke la zone, le nombre de blocs déjà minés, etc.
+ *  - On y stocke la zone et les curseurs de minage (position compactée x,y,z, un par sous-zone), etc.
+ *  - ainsi que les fosses protégées ("pits"), qui survivent à leur session.
  *  - Si tous les coffres sont cassés, la session s'arrête (PNJ et golems sont supprimés).
  */
 public class Mineur implements CommandExecutor, Listener {
@@ -62,6 +88,13 @@ public class Mineur implements CommandExecutor, Listener {
      */
     private final Map<UUID, Selection> selections = new HashMap<>();
 
+    /**
+     * Fosses protégées contre les spawns naturels, et index monde -> chunk -> fosses
+     * pour un test en O(1) à chaque CreatureSpawnEvent.
+     */
+    private final List<QuarryPit> pits = new ArrayList<>();
+    private final Map<UUID, Map<Long, List<QuarryPit>>> pitsByChunk = new HashMap<>();
+
     public Mineur(JavaPlugin plugin) {
         this.plugin = plugin;
 
@@ -83,25 +116,296 @@ public class Mineur implements CommandExecutor, Listener {
     /* =========================================================== */
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!command.getName().equalsIgnoreCase("mineur")) {
+            return false;
+        }
+
+        // Sous-commande "fosses"
+        if (args.length >= 1 && args[0].equalsIgnoreCase("fosses")) {
+            handlePitCommand(sender, args);
+            return true;
+        }
+
+        // Sous-commande "debit"
+        if (args.length >= 1 && args[0].equalsIgnoreCase("debit")) {
+            handleRateCommand(sender, args);
+            return true;
+        }
+        // Sous-commande "etanche"
+        if (args.length >= 1 && args[0].equalsIgnoreCase("etanche")) {
+            handleSealCommand(sender, args);
+            return true;
+        }
+        // Sous-commande "filtre"
+        if (args.length >= 1 && args[0].equalsIgnoreCase("filtre")) {
+            handleFilterCommand(sender, args);
+            return true;
+        }
+
         if (!(sender instanceof Player player)) {
             sender.sendMessage(ChatColor.RED + "Cette commande doit être exécutée par un joueur !");
             return true;
         }
-        if (!command.getName().equalsIgnoreCase("mineur")) {
-            return false;
+
+        // Sous-commandes "confirmer" / "annuler" (après la prévision)
+        if (args.length >= 1 && args[0].equalsIgnoreCase("confirmer")) {
+            confirmSelection(player, args.length >= 2 && args[1].equalsIgnoreCase("filon"));
+            return true;
+        }
+        if (args.length >= 1 && args[0].equalsIgnoreCase("annuler")) {
+            selections.remove(player.getUniqueId());
+            player.sendMessage(ChatColor.YELLOW + "Sélection de mine annulée.");
+            return true;
+        }
+
+        // Bande de Y optionnelle : /mineur <minY> <maxY> ou /mineur <minY>..<maxY>
+        int[] band = null;
+        if (args.length >= 1) {
+            band = parseBand(args);
+            if (band == null) {
+                player.sendMessage(ChatColor.RED + "Usage : /mineur [<minY> <maxY>] (ex : /mineur -64..-40)");
+                return true;
+            }
         }
 
         // Donne un bâton spécial au joueur
         giveMineSelector(player);
 
         // Initialise ou réinitialise la sélection du joueur
-        selections.put(player.getUniqueId(), new Selection());
-        player.sendMessage(ChatColor.GREEN + "Tu as reçu le bâton de sélection de mine.");
+        Selection sel = new Selection();
+        sel.setBand(band);
+        selections.put(player.getUniqueId(), sel);
+        player.sendMessage(ChatColor.GREEN + "Tu as reçu le bâton de sélection de mine"
+                + (band != null ? " (bande Y " + band[0] + ".." + band[1] + ")." : "."));
         player.sendMessage(ChatColor.YELLOW + "Clique 2 blocs à la même hauteur pour définir la zone à miner.");
 
         return true;
     }
 
+    /** Lit "<minY> <maxY>" ou "<minY>..<maxY>" ; null si invalide. */
+    private int[] parseBand(String[] args) {
+        String[] parts = args.length == 1 ? args[0].split("\\.\\.") : args;
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            int a = Integer.parseInt(parts[0].trim());
+            int b = Integer.parseInt(parts[1].trim());
+            return new int[]{Math.min(a, b), Math.max(a, b)};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * /mineur debit                  : liste les sessions et leur débit effectif
+     * /mineur debit <n> <blocs/tick> : règle le débit max de la session n (op)
+     */
+    private void handleRateCommand(CommandSender sender, String[] args) {
+        if (args.length == 1) {
+            if (sessions.isEmpty()) {
+                sender.sendMessage(ChatColor.YELLOW + "Aucune session de minage active.");
+                return;
+            }
+            for (int i = 0; i < sessions.size(); i++) {
+                MiningSession s = sessions.get(i);
+                sender.sendMessage(ChatColor.AQUA + "#" + (i + 1) + " " + s.describe()
+                        + ChatColor.WHITE + " : " + s.budget.getCurrent() + "/" + s.budget.getMaxPerTick()
+                        + " bloc(s)/tick");
+            }
+            return;
+        }
+        if (!sender.isOp()) {
+            sender.sendMessage(ChatColor.RED + "Seul un opérateur peut modifier le débit.");
+            return;
+        }
+        if (args.length < 3) {
+            sender.sendMessage(ChatColor.RED + "Usage : /mineur debit <n° de session> <blocs/tick>");
+            return;
+        }
+        MiningSession s = findSession(sender, args[1]);
+        if (s == null) {
+            return;
+        }
+        int rate;
+        try {
+            rate = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            sender.sendMessage(ChatColor.RED + "Débit invalide : " + args[2]);
+            return;
+        }
+        if (rate < 1 || rate > MiningSession.MAX_BLOCKS_PER_TICK) {
+            sender.sendMessage(ChatColor.RED + "Débit entre 1 et " + MiningSession.MAX_BLOCKS_PER_TICK + " blocs/tick.");
+            return;
+        }
+        s.budget.setMaxPerTick(rate);
+        sender.sendMessage(ChatColor.GREEN + "Débit max de la session #" + args[1] + " : " + rate + " bloc(s)/tick.");
+        saveAllSessions();
+    }
+
+    /**
+     * /mineur etanche                 : liste les sessions et leur mode d'étanchéité
+     * /mineur etanche <n> <on|off>    : active / coupe l'étanchéité de la session n (op)
+     */
+    private void handleSealCommand(CommandSender sender, String[] args) {
+        if (args.length == 1) {
+            if (sessions.isEmpty()) {
+                sender.sendMessage(ChatColor.YELLOW + "Aucune session de minage active.");
+                return;
+            }
+            for (int i = 0; i < sessions.size(); i++) {
+                MiningSession s = sessions.get(i);
+                sender.sendMessage(ChatColor.AQUA + "#" + (i + 1) + " " + s.describe()
+                        + ChatColor.WHITE + " : étanchéité " + (s.sealFluids ? "activée" : "désactivée"));
+            }
+            return;
+        }
+        if (!sender.isOp()) {
+            sender.sendMessage(ChatColor.RED + "Seul un opérateur peut modifier l'étanchéité.");
+            return;
+        }
+        if (args.length < 3 || !(args[2].equalsIgnoreCase("on") || args[2].equalsIgnoreCase("off"))) {
+            sender.sendMessage(ChatColor.RED + "Usage : /mineur etanche <n° de session> <on|off>");
+            return;
+        }
+        MiningSession s = findSession(sender, args[1]);
+        if (s == null) {
+            return;
+        }
+        s.sealFluids = args[2].equalsIgnoreCase("on");
+        sender.sendMessage(ChatColor.GREEN + "Étanchéité de la session #" + args[1] + " "
+                + (s.sealFluids ? "activée" : "désactivée") + ".");
+        saveAllSessions();
+    }
+
+    /**
+     * /mineur filtre                         : liste les sessions et leur filtre
+     * /mineur filtre <n> <tout|minerais>     : change le mode de stockage (op)
+     * /mineur filtre <n> <garder|oublier> <matériau> : gère la liste blanche (op)
+     * /mineur filtre <n> stats               : items détruits par le filtre
+     */
+    private void handleFilterCommand(CommandSender sender, String[] args) {
+        if (args.length == 1) {
+            if (sessions.isEmpty()) {
+                sender.sendMessage(ChatColor.YELLOW + "Aucune session de minage active.");
+                return;
+            }
+            for (int i = 0; i < sessions.size(); i++) {
+                MiningSession s = sessions.get(i);
+                sender.sendMessage(ChatColor.AQUA + "#" + (i + 1) + " " + s.describe()
+                        + ChatColor.WHITE + " : filtre " + s.filter.mode.name().toLowerCase()
+                        + ", " + s.filter.totalVoided() + " item(s) détruit(s)");
+            }
+            return;
+        }
+        if (args.length < 3) {
+            sender.sendMessage(ChatColor.RED + "Usage : /mineur filtre <n° de session> <tout|minerais|garder|oublier|stats> [matériau]");
+            return;
+        }
+        MiningSession s = findSession(sender, args[1]);
+        if (s == null) {
+            return;
+        }
+        StorageFilter filter = s.filter;
+        String action = args[2].toLowerCase();
+        if (!action.equals("stats") && !sender.isOp()) {
+            sender.sendMessage(ChatColor.RED + "Seul un opérateur peut modifier le filtre.");
+            return;
+        }
+        switch (action) {
+            case "tout", "minerais" -> {
+                filter.mode = StorageFilter.Mode.valueOf(action.toUpperCase());
+                sender.sendMessage(ChatColor.GREEN + "Filtre de la session #" + args[1] + " : " + action + ".");
+            }
+            case "garder", "oublier" -> {
+                Material mat = args.length >= 4 ? Material.matchMaterial(args[3]) : null;
+                if (mat == null) {
+                    sender.sendMessage(ChatColor.RED + "Matériau inconnu. Usage : /mineur filtre <n> " + action + " <matériau>");
+                    return;
+                }
+                if (action.equals("garder")) {
+                    filter.whitelist.add(mat);
+                    sender.sendMessage(ChatColor.GREEN + mat.name() + " sera stocké par la session #" + args[1] + ".");
+                } else {
+                    filter.whitelist.remove(mat);
+                    sender.sendMessage(ChatColor.GREEN + mat.name() + " retiré de la liste blanche de la session #" + args[1] + ".");
+                }
+            }
+            case "stats" -> {
+                sender.sendMessage(ChatColor.AQUA + "Session #" + args[1] + " : "
+                        + filter.totalVoided() + " item(s) détruit(s) par le filtre.");
+                for (String line : filter.topVoided(5)) {
+                    sender.sendMessage(ChatColor.GRAY + " - " + line);
+                }
+                return;
+            }
+            default -> {
+                sender.sendMessage(ChatColor.RED + "Action inconnue : " + args[2]);
+                return;
+            }
+        }
+        saveAllSessions();
+    }
+
+    /**
+     * /mineur fosses             : liste les fosses protégées
+     * /mineur fosses oublier <n> : retire la protection de la fosse n (op)
+     */
+    private void handlePitCommand(CommandSender sender, String[] args) {
+        if (args.length == 1) {
+            if (pits.isEmpty()) {
+                sender.sendMessage(ChatColor.YELLOW + "Aucune fosse protégée.");
+                return;
+            }
+            for (int i = 0; i < pits.size(); i++) {
+                sender.sendMessage(ChatColor.AQUA + "#" + (i + 1) + " " + pits.get(i).describe());
+            }
+            return;
+        }
+        if (!sender.isOp()) {
+            sender.sendMessage(ChatColor.RED + "Seul un opérateur peut retirer une fosse.");
+            return;
+        }
+        if (args.length < 3 || !args[1].equalsIgnoreCase("oublier")) {
+            sender.sendMessage(ChatColor.RED + "Usage : /mineur fosses oublier <n° de fosse>");
+            return;
+        }
+        int index;
+        try {
+            index = Integer.parseInt(args[2]) - 1;
+        } catch (NumberFormatException e) {
+            sender.sendMessage(ChatColor.RED + "Numéro de fosse invalide : " + args[2]);
+            return;
+        }
+        if (index < 0 || index >= pits.size()) {
+            sender.sendMessage(ChatColor.RED + "Fosse introuvable (1 à " + pits.size() + ").");
+            return;
+        }
+        QuarryPit pit = pits.remove(index);
+        rebuildPitIndex();
+        saveAllSessions();
+        sender.sendMessage(ChatColor.GREEN + "Fosse " + pit.describe() + " n'est plus protégée.");
+    }
+
+    /**
+     * Retrouve une session par son numéro (tel qu'affiché, à partir de 1).
+     * Prévient l'émetteur et renvoie null si le numéro est invalide.
+     */
+    private MiningSession findSession(CommandSender sender, String arg) {
+        int index;
+        try {
+            index = Integer.parseInt(arg) - 1;
+        } catch (NumberFormatException e) {
+            sender.sendMessage(ChatColor.RED + "Numéro de session invalide : " + arg);
+            return null;
+        }
+        if (index < 0 || index >= sessions.size()) {
+            sender.sendMessage(ChatColor.RED + "Session introuvable (1 à " + sessions.size() + ").");
+            return null;
+        }
+        return sessions.get(index);
+    }
+
     /**
      * Donne le bâton nommé "Sélecteur de mine".
      */
@@ -165,16 +469,17 @@ public class Mineur implements CommandExecutor, Listener {
             // On tente de valider la sélection
             validateSelection(player, sel);
         } else {
-            // Les deux coins existent déjà, on redéfinit le corner1
+            // Les deux coins existent déjà, on redéfinit le corner1 (l'ancienne zone ne peut plus être confirmée)
             sel.setCorner1(clickedBlock);
             sel.setCorner2(null);
+            sel.setPending(null, 0, 0, 0, 0);
             player.sendMessage(ChatColor.AQUA + "Coin 1 redéfini : " + coords(clickedBlock));
         }
     }
 
     /**
      * Vérifie si corner1 et corner2 sont à la même hauteur,
-     * puis crée la MiningSession correspondante.
+     * puis lance la prévision ; la session n'est créée qu'après /mineur confirmer.
      */
     private void validateSelection(Player player, Selection sel) {
         Block c1 = sel.getCorner1();
@@ -185,8 +490,9 @@ public class Mineur implements CommandExecutor, Listener {
 
         if (c1.getY() != c2.getY()) {
             player.sendMessage(ChatColor.RED + "Les 2 blocs doivent être à la même hauteur (Y) !");
-            // On réinitialise corner2
+            // On réinitialise corner2 et la zone en attente
             sel.setCorner2(null);
+            sel.setPending(null, 0, 0, 0, 0);
             return;
         }
 
@@ -208,17 +514,171 @@ public class Mineur implements CommandExecutor, Listener {
 
         Location base = new Location(w, minX, y, minZ);
 
+        // Bande de Y : jamais au-dessus de la sélection
+        int topY = y;
+        int bottomY = MiningPlan.BOTTOM_Y;
+        int[] band = sel.getBand();
+        if (band != null) {
+            topY = Math.min(y, band[1]);
+            bottomY = Math.max(band[0], w.getMinHeight());
+            if (topY < bottomY) {
+                player.sendMessage(ChatColor.RED + "La bande Y " + band[0] + ".." + band[1]
+                        + (band[1] < w.getMinHeight()
+                        ? " est entièrement sous le fond du monde (Y=" + w.getMinHeight() + ") !"
+                        : " est entièrement au-dessus de la sélection (Y=" + y + ") !"));
+                sel.setCorner2(null);
+                sel.setPending(null, 0, 0, 0, 0);
+                return;
+            }
+        }
+        int top = topY;
+        int bottom = bottomY;
+
+        // Prévision sur des snapshots, hors du thread principal
+        sel.setPending(base, width, height, topY, bottomY);
+        player.sendMessage(ChatColor.YELLOW + "Analyse de la zone " + width + "x" + height + " en cours...");
+        UUID playerId = player.getUniqueId();
+        QuarryScan.forecast(plugin, w, minX, minZ, width, height, topY, bottomY, forecast -> {
+            // Sélection modifiée ou abandonnée entre-temps ?
+            if (selections.get(playerId) != sel || sel.getPendingBase() != base) {
+                return;
+            }
+            sel.setForecastReady(true);
+            Player p = Bukkit.getPlayer(playerId);
+            if (p == null) {
+                return;
+            }
+            for (String line : forecastReport(w, forecast, width, height, y, top, bottom)) {
+                p.sendMessage(line);
+            }
+            p.sendMessage(ChatColor.GREEN + "Tape /mineur confirmer pour lancer le mineur (/mineur confirmer filon : "
+                    + "minerais seulement), /mineur annuler pour abandonner.");
+        }, () -> {
+            // Chargement de la zone impossible : on abandonne la zone en attente
+            if (selections.get(playerId) != sel || sel.getPendingBase() != base) {
+                return;
+            }
+            sel.setCorner2(null);
+            sel.setPending(null, 0, 0, 0, 0);
+            Player p = Bukkit.getPlayer(playerId);
+            if (p != null) {
+                p.sendMessage(ChatColor.RED + "Impossible de charger la zone à analyser : "
+                        + "clique à nouveau le 2e bloc pour réessayer.");
+            }
+        });
+    }
+
+    /**
+     * /mineur confirmer [filon] : crée la session une fois la prévision affichée.
+     */
+    private void confirmSelection(Player player, boolean veinMode) {
+        Selection sel = selections.get(player.getUniqueId());
+        if (sel == null || sel.getPendingBase() == null) {
+            player.sendMessage(ChatColor.RED + "Aucune zone à confirmer : fais /mineur et clique 2 blocs.");
+            return;
+        }
+        if (!sel.isForecastReady()) {
+            player.sendMessage(ChatColor.YELLOW + "Analyse de la zone encore en cours, patiente un instant.");
+            return;
+        }
+        Location base = sel.getPendingBase();
+        int width = sel.getPendingWidth();
+        int length = sel.getPendingLength();
+
         // Crée la session
-        MiningSession session = new MiningSession(plugin, base, width, height);
+        MiningSession session = new MiningSession(plugin, base, width, length, null, veinMode,
+                sel.getPendingTop(), sel.getPendingBottom());
         sessions.add(session);
+        registerPit(QuarryPit.of(base, width, length, sel.getPendingBottom()));
 
-        player.sendMessage(ChatColor.GREEN + "Mineur lancé pour une zone de " + width + "x" + height + " (Y=" + y + ").");
+        player.sendMessage(ChatColor.GREEN + "Mineur lancé pour une zone de " + width + "x" + length + " (Y=" + base.getBlockY() + ")"
+                + (veinMode ? " en mode filon." : "."));
         saveAllSessions();
 
         // On nettoie la sélection
         selections.remove(player.getUniqueId());
     }
 
+    /**
+     * Met en forme la prévision : blocs à miner, matériaux principaux,
+     * remplissage attendu des coffres (tout stocker / minerais seulement)
+     * et durée estimée au débit par défaut.
+     */
+    private List<String> forecastReport(World w, QuarryScan.Forecast forecast, int width, int length,
+                                        int selectionY, int topY, int bottomY) {
+        List<String> lines = new ArrayList<>();
+        lines.add(ChatColor.AQUA + "Prévision " + width + "x" + length + " (Y " + topY + " -> " + bottomY + ") : "
+                + ChatColor.WHITE + forecast.total() + " bloc(s) à miner");
+        if (topY < selectionY) {
+            lines.add(ChatColor.GRAY + "+ puits d'accès 1x1 de " + (selectionY - topY) + " bloc(s) depuis Y=" + selectionY);
+        }
+
+        // Matériaux principaux
+        List<Map.Entry<Material, int[]>> entries = new ArrayList<>(forecast.blocks().entrySet());
+        entries.sort((a, b) -> Integer.compare(b.getValue()[0], a.getValue()[0]));
+        StringBuilder top = new StringBuilder();
+        for (int i = 0; i < Math.min(6, entries.size()); i++) {
+            if (i > 0) top.append(", ");
+            top.append(entries.get(i).getKey().name()).append(' ').append(entries.get(i).getValue()[0]);
+        }
+        if (top.length() > 0) {
+            lines.add(ChatColor.GRAY + "Principaux : " + top);
+        }
+        long ores = 0;
+        for (Map.Entry<Material, int[]> e : entries) {
+            if (QuarryScan.isOre(e.getKey())) {
+                ores += e.getValue()[0];
+            }
+        }
+        lines.add(ChatColor.GRAY + "Minerai : " + ores + " bloc(s) (mode filon : minerai + puits d'accès seulement)");
+
+        // Items produits : un bloc témoin par matériau (si son chunk est encore chargé)
+        Map<Material, Long> items = new EnumMap<>(Material.class);
+        for (Map.Entry<Material, int[]> e : entries) {
+            int count = e.getValue()[0];
+            long sample = forecast.samples().get(e.getKey());
+            int sx = BlockKey.x(sample), sy = BlockKey.y(sample), sz = BlockKey.z(sample);
+            if (w.isChunkLoaded(sx >> 4, sz >> 4)) {
+                for (ItemStack drop : DropResolver.INSTANCE.resolve(w.getBlockAt(sx, sy, sz))) {
+                    items.merge(drop.getType(), (long) drop.getAmount() * count, Long::sum);
+                }
+            } else if (e.getKey().isItem()) {
+                items.merge(e.getKey(), (long) count, Long::sum);
+            }
+        }
+        StorageFilter oresOnly = new StorageFilter();
+        oresOnly.mode = StorageFilter.Mode.MINERAIS;
+        long allStacks = 0;
+        long oreStacks = 0;
+        for (Map.Entry<Material, Long> e : items.entrySet()) {
+            int stackSize = Math.max(1, e.getKey().getMaxStackSize());
+            long stacks = (e.getValue() + stackSize - 1) / stackSize;
+            allStacks += stacks;
+            if (oresOnly.keeps(e.getKey())) {
+                oreStacks += stacks;
+            }
+        }
+        int slots = MiningSession.CHEST_SLOTS;
+        lines.add(ChatColor.GRAY + "Coffres : ~" + allStacks + " pile(s), soit " + (allStacks * 100 / slots)
+                + "% des " + slots + " emplacements ; filtre minerais : ~" + oreStacks + " pile(s) ("
+                + (oreStacks * 100 / slots) + "%)");
+
+        // Durée au débit par défaut (20 ticks/s)
+        long seconds = forecast.total() / (MiningSession.DEFAULT_BLOCKS_PER_TICK * 20L);
+        lines.add(ChatColor.GRAY + "Durée estimée : " + formatDuration(seconds)
+                + " à " + MiningSession.DEFAULT_BLOCKS_PER_TICK + " bloc(s)/tick");
+        return lines;
+    }
+
+    private String formatDuration(long seconds) {
+        long h = seconds / 3600;
+        long min = (seconds % 3600) / 60;
+        if (h > 0) {
+            return h + "h " + min + "min";
+        }
+        return Math.max(1, min) + " min";
+    }
+
     private String coords(Block b) {
         return "(" + b.getX() + ", " + b.getY() + ", " + b.getZ() + ")";
     }
@@ -246,6 +706,79 @@ public class Mineur implements CommandExecutor, Listener {
         }
     }
 
+    /* =========================================================== */
+    /*    ÉVÉNEMENT : spawn naturel dans une fosse (annulé)        */
+    /* =========================================================== */
+    @EventHandler(ignoreCancelled = true)
+    public void onCreatureSpawn(CreatureSpawnEvent event) {
+        if (event.getSpawnReason() != CreatureSpawnEvent.SpawnReason.NATURAL) {
+            return;
+        }
+        Location loc = event.getLocation();
+        Map<Long, List<QuarryPit>> byChunk = pitsByChunk.get(loc.getWorld().getUID());
+        if (byChunk == null) {
+            return;
+        }
+        List<QuarryPit> candidates = byChunk.get(chunkKey(loc.getBlockX() >> 4, loc.getBlockZ() >> 4));
+        if (candidates == null) {
+            return;
+        }
+        for (QuarryPit pit : candidates) {
+            if (pit.contains(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ())) {
+                event.setCancelled(true);
+                return;
+            }
+        }
+    }
+
+    /** Ajoute une fosse (sans doublon) et l'indexe sur chacun de ses chunks. */
+    private void registerPit(QuarryPit pit) {
+        if (pits.contains(pit)) {
+            return;
+        }
+        pits.add(pit);
+        indexPit(pit);
+    }
+
+    private void indexPit(QuarryPit pit) {
+        Map<Long, List<QuarryPit>> byChunk = pitsByChunk.computeIfAbsent(pit.world(), k -> new HashMap<>());
+        for (int cx = pit.minX() >> 4; cx <= pit.maxX() >> 4; cx++) {
+            for (int cz = pit.minZ() >> 4; cz <= pit.maxZ() >> 4; cz++) {
+                byChunk.computeIfAbsent(chunkKey(cx, cz), k -> new ArrayList<>(1)).add(pit);
+            }
+        }
+    }
+
+    private void rebuildPitIndex() {
+        pitsByChunk.clear();
+        for (QuarryPit pit : pits) {
+            indexPit(pit);
+        }
+    }
+
+    private static long chunkKey(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
+    /* =========================================================== */
+    /*   ÉVÉNEMENTS : (dé)chargement d'un chunk (rattrapage)       */
+    /* =========================================================== */
+    @EventHandler
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        Chunk chunk = event.getChunk();
+        for (MiningSession session : sessions) {
+            session.onChunkUnloaded(event.getWorld(), chunk.getX(), chunk.getZ());
+        }
+    }
+
+    @EventHandler
+    public void onChunkLoad(ChunkLoadEvent event) {
+        Chunk chunk = event.getChunk();
+        for (MiningSession session : sessions) {
+            session.onChunkLoaded(event.getWorld(), chunk.getX(), chunk.getZ());
+        }
+    }
+
     /* =========================================================== */
     /*                       PERSISTANCE                          */
     /* =========================================================== */
@@ -258,6 +791,12 @@ public class Mineur implements CommandExecutor, Listener {
             i++;
         }
 
+        List<Map<String, Object>> pitList = new ArrayList<>();
+        for (QuarryPit pit : pits) {
+            pitList.add(pit.toMap());
+        }
+        sessionsYaml.set("pits", pitList);
+
         try {
             sessionsYaml.save(sessionsFile);
         } catch (IOException e) {
@@ -267,6 +806,15 @@ public class Mineur implements CommandExecutor, Listener {
     }
 
     public void loadSavedSessions() {
+        // Fosses protégées (ancien fichier sans "pits" : déduites des sessions ci-dessous)
+        boolean hasPits = sessionsYaml.contains("pits");
+        for (Map<?, ?> raw : sessionsYaml.getMapList("pits")) {
+            QuarryPit pit = QuarryPit.fromMap(raw);
+            if (pit != null) {
+                registerPit(pit);
+            }
+        }
+
         ConfigurationSection root = sessionsYaml.getConfigurationSection("sessions");
         if (root == null) {
             return;
@@ -289,26 +837,43 @@ public class Mineur implements CommandExecutor, Listener {
             int bz = sec.getInt("z");
             int width  = sec.getInt("width");
             int length = sec.getInt("length");
-            int remaining = sec.getInt("remaining", -1);
+            // Un curseur par sous-zone ; ancien format : un seul "cursor" (ou "remaining" :
+            // on repart du haut, les blocs déjà minés sont de l'air et sont sautés).
+            List<Long> cursors = sec.contains("cursors") ? sec.getLongList("cursors")
+                    : sec.contains("cursor") ? List.of(sec.getLong("cursor"))
+                    : null;
+            int rate = sec.getInt("rate", MiningSession.DEFAULT_BLOCKS_PER_TICK);
+            boolean seal = sec.getBoolean("sealFluids", false);
+            StorageFilter filter = StorageFilter.fromSection(sec);
+            boolean veinMode = sec.getBoolean("veinMode", false);
+            int bandTop = sec.getInt("bandTop", by);
+            int bandBottom = sec.getInt("bandBottom", MiningPlan.BOTTOM_Y);
+            Map<Material, Long> pendingItems = new EnumMap<>(Material.class);
+            ConfigurationSection pendingSec = sec.getConfigurationSection("pendingItems");
+            if (pendingSec != null) {
+                for (String name : pendingSec.getKeys(false)) {
+                    Material m = Material.matchMaterial(name);
+                    if (m != null) {
+                        pendingItems.put(m, pendingSec.getLong(name));
+                    }
+                }
+            }
 
             Location base = new Location(w, bx, by, bz);
+            if (!hasPits) {
+                registerPit(QuarryPit.of(base, width, length, bandBottom));
+            }
             clearZone(base, width, length,
                     List.of("Mineur", "Golem de minage"));
 
-            int finalRemaining = remaining;
             Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                MiningSession session = new MiningSession(plugin, base, width, length);
-
-                if (finalRemaining >= 0) {
-                    int total = session.blocksToMine.size();
-                    int alreadyMined = total - finalRemaining;
-                    for (int i = 0; i < alreadyMined; i++) {
-                        if (!session.blocksToMine.isEmpty()) {
-                            session.blocksToMine.poll();
-                        }
-                    }
-                }
-
+                // Reprise en O(1) : on replace simplement le curseur
+                MiningSession session = new MiningSession(plugin, base, width, length, cursors, veinMode,
+                        bandTop, bandBottom);
+                session.budget.setMaxPerTick(rate);
+                session.sealFluids = seal;
+                session.filter = filter;
+                session.pendingItems.putAll(pendingItems);
                 sessions.add(session);
             }, 20L);
 
@@ -364,33 +929,90 @@ public class Mineur implements CommandExecutor, Listener {
         private final Location base;  // coin minimal (x, z) + y
         private final int width, length;
 
-        // file des blocs à miner (du Y actuel jusqu'à -58)
-        Queue<Block> blocksToMine;
+        // plans de minage (du Y actuel jusqu'à -58) : un seul, ou un par sous-zone
+        final List<MiningPlan> plans = new ArrayList<>();
+        private int planIndex = 0;
+
+        // Mode filon : seulement les filons de minerai (+ puits d'accès)
+        final boolean veinMode;
+
+        // Bande de Y minée (par défaut : du Y de la sélection jusqu'à -58)
+        private final int bandTop;
+        private final int bandBottom;
 
         // PNJ + golems
         private Villager miner;
         private final List<Golem> golems = new ArrayList<>();
 
         // coffres
-        private final Set<Block> chestBlocks = new HashSet<>();
+        private final List<Block> chestBlocks = new ArrayList<>();
+        // Items gardés en attente d'un coffre dont le chunk est chargé
+        private final Map<Material, Long> pendingItems = new EnumMap<>(Material.class);
 
         // Tâche de minage (BukkitRunnable)
         private BukkitRunnable miningTask;
+        private boolean stopped = false;
+        private int chestIndex = 0;
+
+        // Débit (blocs/tick), adapté au MSPT du serveur
+        static final int DEFAULT_BLOCKS_PER_TICK = 2;
+        static final int MAX_BLOCKS_PER_TICK     = 64;
+        final TickBudget budget = new TickBudget(DEFAULT_BLOCKS_PER_TICK);
+
+        // Étanchéité : bouche les fluides voisins avant de casser un bloc
+        boolean sealFluids = false;
+
+        // Filtre de stockage (tout / minerais + liste blanche)
+        StorageFilter filter = new StorageFilter();
 
         private static final int CHESTS_PER_CORNER = 6;
+        static final int CHEST_SLOTS = CHESTS_PER_CORNER * 4 * 27;
         private static final Material FRAME_BLOCK  = Material.OAK_PLANKS;
+        private static final int RESPAWN_CHECK_TICKS = 20;
+        private static final Material SEAL_BLOCK      = Material.COBBLESTONE;
+        private static final Material DEEP_SEAL_BLOCK = Material.COBBLED_DEEPSLATE;
+        private static final int[][] FACES = {{1,0,0},{-1,0,0},{0,1,0},{0,-1,0},{0,0,1},{0,0,-1}};
+
+        // Au-delà de ce nombre de chunks, la zone est découpée en sous-zones (1 par chunk)
+        private static final int SPLIT_MIN_CHUNKS = 4;
+
+        // Rattrapage hors-ligne : plafond de blocs dus, et blocs retirés par tick
+        private static final int MAX_CATCHUP_BLOCKS      = 20_000;
+        private static final int CATCHUP_BLOCKS_PER_TICK = 512;
+
+        // Scan d'une sous-zone en échec (chargement de chunk refusé) : nouvel essai après ce délai
+        private static final long SCAN_RETRY_TICKS = 200L;
 
         public MiningSession(JavaPlugin plugin, Location base, int width, int length) {
+            this(plugin, base, width, length, null, false, base.getBlockY(), MiningPlan.BOTTOM_Y);
+        }
+
+        /**
+         * @param resumeCursors curseurs sauvegardés (un par sous-zone), ou null pour partir du haut
+         * @param veinMode      true : ne mine que les filons de minerai et leurs puits d'accès
+         * @param bandTop       Y le plus haut miné (sous la sélection : un puits d'accès y descend)
+         * @param bandBottom    Y le plus bas miné
+         */
+        public MiningSession(JavaPlugin plugin, Location base, int width, int length,
+                             List<Long> resumeCursors, boolean veinMode, int bandTop, int bandBottom) {
             this.plugin = plugin;
             this.base = base;
             this.width  = width;
             this.length = length;
+            this.veinMode = veinMode;
+            this.bandTop = Math.min(bandTop, base.getBlockY());
+            this.bandBottom = bandBottom;
 
             // 1) Place cadre
             placeFrame();
 
-            // 2) Prépare la liste de blocs à miner
-            buildMiningQueue();
+            // 2) Prépare les plans de minage (curseurs, aucun bloc pré-calculé)
+            buildPlans();
+            // Mode filon : l'ordre des cibles n'est pas monotone, on rescanne
+            // (les blocs déjà minés sont de l'air et ne forment plus de filon)
+            if (resumeCursors != null && !veinMode) {
+                resume(resumeCursors);
+            }
 
             // 3) Place les coffres
             placeChests();
@@ -399,8 +1021,99 @@ public class Mineur implements CommandExecutor, Listener {
             spawnOrRespawnMiner();
             spawnOrRespawnGolems();
 
-            // 5) Lance la boucle de minage
+            // 5) Boucle de minage ; chaque sous-zone démarre dès que son scan
+            //    (hors du thread principal) est terminé
             startMiningTask();
+            for (MiningPlan plan : plans) {
+                scanPlan(plan);
+            }
+        }
+
+        /** Scanne une sous-zone ; si ses chunks n'ont pas pu être chargés, on réessaie plus tard. */
+        private void scanPlan(MiningPlan plan) {
+            QuarryScan.scan(plugin, plan, targets -> {
+                if (!stopped) {
+                    plan.setTargets(targets);
+                }
+            }, () -> {
+                if (!stopped) {
+                    Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                        if (!stopped) {
+                            scanPlan(plan);
+                        }
+                    }, SCAN_RETRY_TICKS);
+                }
+            });
+        }
+
+        /* --------------------- Découpage en sous-zones --------------------- */
+        private void buildPlans() {
+            World w = base.getWorld();
+            int bx = base.getBlockX();
+            int by = base.getBlockY();
+            int bz = base.getBlockZ();
+            int maxX = bx + width - 1;
+            int maxZ = bz + length - 1;
+
+            // Bande sous la sélection : puits d'accès 1x1 (toujours le premier plan)
+            MiningPlan shaft = null;
+            if (bandTop < by) {
+                shaft = new MiningPlan(w, bx, bz, 1, 1, by, bandTop + 1, false);
+                plans.add(shaft);
+            }
+
+            int chunksX = (maxX >> 4) - (bx >> 4) + 1;
+            int chunksZ = (maxZ >> 4) - (bz >> 4) + 1;
+            if (chunksX * chunksZ <= SPLIT_MIN_CHUNKS) {
+                plans.add(new MiningPlan(w, bx, bz, width, length, bandTop, bandBottom, veinMode));
+            } else {
+                // Une sous-zone par chunk : chacune ne touche que son propre chunk
+                for (int cx = bx >> 4; cx <= maxX >> 4; cx++) {
+                    for (int cz = bz >> 4; cz <= maxZ >> 4; cz++) {
+                        int x0 = Math.max(bx, cx << 4);
+                        int x1 = Math.min(maxX, (cx << 4) + 15);
+                        int z0 = Math.max(bz, cz << 4);
+                        int z1 = Math.min(maxZ, (cz << 4) + 15);
+                        plans.add(new MiningPlan(w, x0, z0, x1 - x0 + 1, z1 - z0 + 1, bandTop, bandBottom, veinMode));
+                    }
+                }
+            }
+
+            // La sous-zone sous le puits attend qu'il soit creusé : miner le haut de la bande
+            // sous une colonne de sable ou de gravier la ferait tomber
+            if (shaft != null) {
+                for (int i = 1; i < plans.size(); i++) {
+                    if (plans.get(i).covers(bx >> 4, bz >> 4)) {
+                        plans.get(i).prerequisite = shaft;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Replace les curseurs sauvegardés. Un curseur unique (ancien format, zone non découpée)
+         * est reporté sur chaque sous-zone au début de sa couche.
+         */
+        private void resume(List<Long> cursors) {
+            if (cursors.size() == plans.size()) {
+                for (int i = 0; i < plans.size(); i++) {
+                    plans.get(i).resumeAt(cursors.get(i));
+                }
+            } else if (cursors.size() == 1) {
+                int y = BlockKey.y(cursors.get(0));
+                for (MiningPlan p : plans) {
+                    p.resumeAt(BlockKey.pack(p.minX, y, p.minZ));
+                }
+            }
+        }
+
+        private boolean allPlansFinished() {
+            for (MiningPlan p : plans) {
+                if (!p.isFinished()) {
+                    return false;
+                }
+            }
+            return true;
         }
 
         /* --------------------- Cadre en bois --------------------- */
@@ -429,28 +1142,6 @@ public class Mineur implements CommandExecutor, Listener {
             w.getBlockAt(x, y, z).setType(mat, false);
         }
 
-        /* --------------------- Prépare la file de blocs à miner --------------------- */
-        private void buildMiningQueue() {
-            blocksToMine = new LinkedList<>();
-
-            World w = base.getWorld();
-            int bx = base.getBlockX();
-            int by = base.getBlockY();
-            int bz = base.getBlockZ();
-
-            // On mine depuis "by" jusqu'à -58 (ou bedrock)
-            for (int y = by; y >= -58; y--) {
-                for (int x = bx; x < bx + width; x++) {
-                    for (int z = bz; z < bz + length; z++) {
-                        Block b = w.getBlockAt(x, y, z);
-                        if (b.getType() != Material.BEDROCK && !b.getType().isAir()) {
-                            blocksToMine.add(b);
-                        }
-                    }
-                }
-            }
-        }
-
         /* --------------------- Place les coffres aux 4 coins --------------------- */
         private void placeChests() {
             World w = base.getWorld();
@@ -498,59 +1189,360 @@ public class Mineur implements CommandExecutor, Listener {
             }
         }
 
-        /* --------------------- Boucle de minage (1 bloc/s) --------------------- */
+        /* --------------------- Boucle de minage (N blocs/tick) --------------------- */
         private void startMiningTask() {
             miningTask = new BukkitRunnable() {
-                int chestIndex = 0;
+                int ticks = 0;
 
                 @Override
                 public void run() {
-                    // Vérif PNJ + golems
-                    if (miner == null || miner.isDead()) {
-                        spawnOrRespawnMiner();
+                    // Vérif PNJ + golems (1 fois/s suffit, et seulement si le chunk est chargé)
+                    if (ticks++ % RESPAWN_CHECK_TICKS == 0
+                            && base.getWorld().isChunkLoaded(base.getBlockX() >> 4, base.getBlockZ() >> 4)) {
+                        if (miner == null || miner.isDead()) {
+                            spawnOrRespawnMiner();
+                        }
+                        spawnOrRespawnGolems();
                     }
-                    spawnOrRespawnGolems();
 
-                    // S'il n'y a plus de blocs => stop
-                    if (blocksToMine.isEmpty()) {
-                        cancel();
-                        return;
+                    // Items en attente : nouvel essai une fois par seconde
+                    if (ticks % RESPAWN_CHECK_TICKS == 1 && !pendingItems.isEmpty()) {
+                        flushPendingItems();
                     }
 
-                    // Prend le prochain bloc
-                    Block b = blocksToMine.poll();
-                    if (b == null) return;
-
-                    Material mat = b.getType();
-                    if (mat == Material.AIR || mat == Material.BEDROCK) {
+                    // S'il n'y a plus de blocs => stop (une fois les items en attente rangés)
+                    if (allPlansFinished()) {
+                        if (pendingItems.isEmpty()) {
+                            cancel();
+                        }
                         return;
                     }
 
-                    // Téléportation "pour le show"
-                    Location above = b.getLocation().add(0.5, 1.0, 0.5);
-                    miner.teleport(above);
-
-                    // On simule la casse
-                    List<ItemStack> drops = new ArrayList<>(b.getDrops(new ItemStack(Material.IRON_PICKAXE)));
-                    b.setType(Material.AIR, false);
-
-                    // On dépose dans un coffre
-                    if (!drops.isEmpty() && !chestBlocks.isEmpty()) {
-                        List<Block> list = new ArrayList<>(chestBlocks);
-                        Block chestBlock = list.get(chestIndex % list.size());
-                        chestIndex++;
-
-                        if (chestBlock.getType() == Material.CHEST) {
-                            Chest c = (Chest) chestBlock.getState();
-                            Inventory inv = c.getInventory();
-                            for (ItemStack drop : drops) {
-                                inv.addItem(drop);
+                    // Casse jusqu'à N blocs ce tick (N ajusté selon le MSPT),
+                    // une sous-zone après l'autre (round-robin)
+                    int allowance = budget.nextAllowance();
+                    int idle = 0;
+                    Block last = null;
+                    while (allowance > 0 && idle < plans.size()) {
+                        MiningPlan plan = plans.get(planIndex);
+                        planIndex = (planIndex + 1) % plans.size();
+
+                        if (!plan.isReady() || plan.catchingUp || plan.isFinished() || plan.isHeld()) {
+                            idle++;
+                            continue;
+                        }
+                        // Sous-zone déchargée : on ne recharge rien ; l'heure du déchargement est notée
+                        // par onChunkUnloaded (filet : sous-zone déjà déchargée au démarrage)
+                        if (!plan.isLoaded()) {
+                            if (plan.unloadedSince < 0) {
+                                plan.unloadedSince = base.getWorld().getGameTime();
                             }
+                            idle++;
+                            continue;
                         }
+
+                        // Prend le prochain bloc (le plan ressaute ce qui a changé depuis le scan)
+                        Block b = plan.next();
+                        if (b == null) {
+                            idle++;
+                            continue;
+                        }
+                        // Voisin dans un chunk déchargé : on ne peut pas l'étancher sans le charger,
+                        // la cible attend son chargement
+                        if (sealFluids && !sealable(b)) {
+                            plan.holdBack();
+                            idle++;
+                            continue;
+                        }
+                        idle = 0;
+                        breakBlock(b);
+                        last = b;
+                        allowance--;
+                    }
+
+                    // Téléportation "pour le show" (une fois par tick)
+                    if (last != null && miner != null && miner.isValid()) {
+                        miner.teleport(last.getLocation().add(0.5, 1.0, 0.5));
                     }
                 }
             };
-            miningTask.runTaskTimer(plugin, 20L, 20L); // 1 bloc/s
+            miningTask.runTaskTimer(plugin, 20L, 1L);
+        }
+
+        private void breakBlock(Block b) {
+            if (sealFluids) {
+                sealAround(b);
+            }
+
+            // On simule la casse (drops mis en cache par type de bloc)
+            ItemStack[] drops = DropResolver.INSTANCE.resolve(b);
+            b.setType(Material.AIR, false);
+
+            // On dépose dans un coffre ce que le filtre garde, le reste est compté puis détruit
+            Inventory inv = null;
+            for (ItemStack drop : drops) {
+                if (!filter.keeps(drop.getType())) {
+                    filter.countVoided(drop.getType(), drop.getAmount());
+                    continue;
+                }
+                if (inv == null) {
+                    inv = nextChestInventory();
+                    if (inv == null) {
+                        // Aucun coffre dans un chunk chargé : on garde pour plus tard
+                        bufferItem(drop.getType(), drop.getAmount());
+                        continue;
+                    }
+                }
+                // addItem peut modifier la pile reçue : on protège le cache
+                inv.addItem(drop.clone());
+            }
+        }
+
+        /* --------------------- Rattrapage hors-ligne --------------------- */
+        /** Appelé à chaque ChunkUnloadEvent : les sous-zones de ce chunk notent depuis quand. */
+        void onChunkUnloaded(World w, int cx, int cz) {
+            if (stopped || !w.equals(base.getWorld())) {
+                return;
+            }
+            for (MiningPlan plan : plans) {
+                if (plan.unloadedSince < 0 && !plan.isFinished() && plan.covers(cx, cz)) {
+                    plan.unloadedSince = w.getGameTime();
+                }
+            }
+        }
+
+        /**
+         * Appelé à chaque ChunkLoadEvent : si une sous-zone de ce chunk était
+         * déchargée, on calcule le travail dû (temps écoulé x débit) et on le
+         * rattrape au tick suivant, depuis un snapshot.
+         */
+        void onChunkLoaded(World w, int cx, int cz) {
+            if (stopped || !w.equals(base.getWorld())) {
+                return;
+            }
+            if (cx < base.getBlockX() >> 4 || cx > (base.getBlockX() + width - 1) >> 4
+                    || cz < base.getBlockZ() >> 4 || cz > (base.getBlockZ() + length - 1) >> 4) {
+                return;
+            }
+            for (MiningPlan plan : plans) {
+                if (plan.unloadedSince < 0 || !plan.covers(cx, cz)) {
+                    continue;
+                }
+                Bukkit.getScheduler().runTask(plugin, () -> startCatchUp(plan));
+            }
+        }
+
+        private void startCatchUp(MiningPlan plan) {
+            if (stopped || plan.unloadedSince < 0 || plan.catchingUp || plan.isHeld()
+                    || !plan.isReady() || plan.isFinished() || !plan.isLoaded()) {
+                return;
+            }
+            long elapsed = base.getWorld().getGameTime() - plan.unloadedSince;
+            plan.unloadedSince = -1;
+
+            // Le débit de la session est partagé entre les sous-zones actives
+            int active = 0;
+            for (MiningPlan p : plans) {
+                if (!p.isFinished()) {
+                    active++;
+                }
+            }
+            long owed = elapsed * budget.getCurrent() / Math.max(1, active);
+            int owedBlocks = (int) Math.min(MAX_CATCHUP_BLOCKS, owed);
+            if (owedBlocks <= 0) {
+                return;
+            }
+
+            // catchingUp reste levé jusqu'au retrait de la dernière tranche
+            plan.catchingUp = true;
+            QuarryScan.catchUp(plugin, plan, owedBlocks, result -> {
+                if (!stopped) {
+                    applyCatchUp(plan, result);
+                }
+            });
+        }
+
+        /**
+         * Applique le rattrapage par tranches, sans physique. Chaque tranche retire ses blocs,
+         * dépose ses drops agrégés par matériau (un seul dépôt par type d'item) puis avance
+         * le curseur du plan : un arrêt en cours de route ne saute ni ne paie aucun bloc encore debout.
+         */
+        private void applyCatchUp(MiningPlan plan, QuarryScan.CatchUp result) {
+            World w = base.getWorld();
+            long[] positions = result.positions();
+            int[] indices = result.indices();
+            new BukkitRunnable() {
+                int i = 0;
+
+                @Override
+                public void run() {
+                    if (stopped) {
+                        cancel();
+                        return;
+                    }
+                    // Sous-zone de nouveau déchargée : on s'arrête là, le curseur est à jour
+                    if (!plan.isLoaded()) {
+                        plan.catchingUp = false;
+                        if (plan.unloadedSince < 0) {
+                            plan.unloadedSince = w.getGameTime();
+                        }
+                        cancel();
+                        return;
+                    }
+                    int slice = Bukkit.getAverageTickTime() > TickBudget.MAX_MSPT
+                            ? CATCHUP_BLOCKS_PER_TICK / 4
+                            : CATCHUP_BLOCKS_PER_TICK;
+                    int end = Math.min(positions.length, i + slice);
+                    Map<Material, Long> items = new EnumMap<>(Material.class);
+                    boolean blocked = false;
+                    for (; i < end; i++) {
+                        long key = positions[i];
+                        Block b = w.getBlockAt(BlockKey.x(key), BlockKey.y(key), BlockKey.z(key));
+                        if (sealFluids) {
+                            if (!sealable(b)) {
+                                blocked = true;
+                                break;
+                            }
+                            sealAround(b);
+                        }
+                        for (ItemStack drop : DropResolver.INSTANCE.resolve(b)) {
+                            items.merge(drop.getType(), (long) drop.getAmount(), Long::sum);
+                        }
+                        b.setType(Material.AIR, false);
+                    }
+                    storeAggregated(items);
+
+                    if (blocked) {
+                        // Voisin déchargé : la boucle normale reprend à ce bloc et l'attendra
+                        plan.skipTo(indices[i]);
+                        plan.catchingUp = false;
+                        cancel();
+                    } else if (i >= positions.length) {
+                        // Inclut les cibles vides sautées après le dernier bloc
+                        plan.skipTo(result.nextIndex());
+                        plan.catchingUp = false;
+                        cancel();
+                    } else {
+                        plan.skipTo(indices[i - 1] + 1);
+                    }
+                }
+            }.runTaskTimer(plugin, 1L, 1L);
+        }
+
+        /** Stocke des quantités agrégées (filtre appliqué), en piles pleines. */
+        private void storeAggregated(Map<Material, Long> items) {
+            for (Map.Entry<Material, Long> e : items.entrySet()) {
+                Material mat = e.getKey();
+                long amount = e.getValue();
+                if (!filter.keeps(mat)) {
+                    filter.countVoided(mat, amount);
+                    continue;
+                }
+                int stackSize = Math.max(1, mat.getMaxStackSize());
+                while (amount > 0) {
+                    Inventory inv = nextChestInventory();
+                    if (inv == null) {
+                        bufferItem(mat, amount);
+                        break;
+                    }
+                    int n = (int) Math.min(stackSize, amount);
+                    inv.addItem(new ItemStack(mat, n));
+                    amount -= n;
+                }
+            }
+        }
+
+        /** Met des items (déjà filtrés) de côté ; perdus seulement s'il n'y a plus aucun coffre. */
+        private void bufferItem(Material mat, long amount) {
+            if (!chestBlocks.isEmpty()) {
+                pendingItems.merge(mat, amount, Long::sum);
+            }
+        }
+
+        /** Range les items en attente ; ce qui ne trouve toujours pas de coffre y retourne. */
+        private void flushPendingItems() {
+            Map<Material, Long> items = new EnumMap<>(pendingItems);
+            pendingItems.clear();
+            storeAggregated(items);
+        }
+
+        /**
+         * Coffre suivant (round-robin) dont le chunk est chargé, ou null s'il n'y en a aucun.
+         * Les coffres sont aux coins de la zone : on ne charge jamais leur chunk pour un dépôt.
+         */
+        private Inventory nextChestInventory() {
+            World w = base.getWorld();
+            for (int tries = 0; tries < chestBlocks.size(); tries++) {
+                Block chestBlock = chestBlocks.get(chestIndex % chestBlocks.size());
+                chestIndex++;
+                if (!w.isChunkLoaded(chestBlock.getX() >> 4, chestBlock.getZ() >> 4)
+                        || chestBlock.getType() != Material.CHEST) {
+                    continue;
+                }
+                // Pas de copie de l'état : on veut juste l'inventaire réel
+                return ((Chest) chestBlock.getState(false)).getInventory();
+            }
+            return null;
+        }
+
+        /**
+         * Avant d'ouvrir un bloc, neutralise l'eau et la lave qui le touchent :
+         *  - fluide hors de la zone (paroi, plafond) : remplacé par un bloc bon marché ;
+         *  - fluide sur une position minée (bande, puits, cibles du filon) : simplement retiré
+         *    (il aurait été miné de toute façon).
+         * Tout se fait sans physique, pour ne pas déclencher d'écoulement.
+         * L'appelant vérifie d'abord {@link #sealable(Block)} : aucun chunk n'est chargé ici.
+         */
+        private void sealAround(Block b) {
+            for (int[] f : FACES) {
+                Block nb = b.getRelative(f[0], f[1], f[2]);
+                Material m = nb.getType();
+                if (m != Material.WATER && m != Material.LAVA) {
+                    continue;
+                }
+                if (isInsideZone(nb)) {
+                    nb.setType(Material.AIR, false);
+                } else {
+                    nb.setType(nb.getY() < 0 ? DEEP_SEAL_BLOCK : SEAL_BLOCK, false);
+                }
+            }
+        }
+
+        /**
+         * Les chunks des voisins de b sont-ils tous chargés ? (ne charge rien)
+         * Un bloc en bordure de chunk touche le chunk d'à côté, peut-être celui d'une autre sous-zone.
+         */
+        private boolean sealable(Block b) {
+            World w = b.getWorld();
+            int x = b.getX(), z = b.getZ();
+            return w.isChunkLoaded((x - 1) >> 4, z >> 4) && w.isChunkLoaded((x + 1) >> 4, z >> 4)
+                    && w.isChunkLoaded(x >> 4, (z - 1) >> 4) && w.isChunkLoaded(x >> 4, (z + 1) >> 4);
+        }
+
+        /**
+         * Position réellement minée : la bande (et le puits qui y descend) ;
+         * en mode filon, seulement les cibles de la file. Tout le reste est une paroi.
+         */
+        private boolean isInsideZone(Block b) {
+            for (MiningPlan plan : plans) {
+                if (plan.mines(b.getX(), b.getY(), b.getZ())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Résumé lisible de la zone, pour les listes de /mineur. */
+        String describe() {
+            String desc = "(" + base.getBlockX() + ", " + base.getBlockY() + ", " + base.getBlockZ() + ") "
+                    + width + "x" + length;
+            if (bandTop != base.getBlockY() || bandBottom != MiningPlan.BOTTOM_Y) {
+                desc += " Y " + bandTop + ".." + bandBottom;
+            }
+            if (veinMode) {
+                desc += " [filons]";
+            }
+            return plans.size() > 1 ? desc + " [" + plans.size() + " sous-zones]" : desc;
         }
 
         /* --------------------- Vérifications coffres --------------------- */
@@ -568,6 +1560,7 @@ public class Mineur implements CommandExecutor, Listener {
 
         /* --------------------- Arrêt de la session --------------------- */
         public void stopSession() {
+            stopped = true;
             if (miningTask != null) {
                 miningTask.cancel();
             }
@@ -592,11 +1585,805 @@ public class Mineur implements CommandExecutor, Listener {
             map.put("z", base.getBlockZ());
             map.put("width",  width);
             map.put("length", length);
-            map.put("remaining", blocksToMine.size());
+            List<Long> cursors = new ArrayList<>();
+            for (MiningPlan p : plans) {
+                cursors.add(p.getCursor());
+            }
+            map.put("cursors", cursors);
+            map.put("rate", budget.getMaxPerTick());
+            map.put("sealFluids", sealFluids);
+            map.put("veinMode", veinMode);
+            map.put("bandTop", bandTop);
+            map.put("bandBottom", bandBottom);
+            filter.writeTo(map);
+            // Items pas encore rangés (coffres dans des chunks déchargés)
+            if (!pendingItems.isEmpty()) {
+                Map<String, Object> pending = new LinkedHashMap<>();
+                for (Map.Entry<Material, Long> e : pendingItems.entrySet()) {
+                    pending.put(e.getKey().name(), e.getValue());
+                }
+                map.put("pendingItems", pending);
+            }
             return map;
         }
     }
 
+    /* =========================================================== */
+    /*   CLASSE MiningPlan : cibles de la zone + curseur            */
+    /* =========================================================== */
+    /**
+     * Parcourt la zone couche par couche (Y décroissant, puis X, puis Z).
+     * Les cibles (ni air, ni bedrock) sont fournies par {@link QuarryScan}
+     * sous forme de positions compactées (voir {@link BlockKey}) ; seule la
+     * position de la prochaine cible est persistée.
+     */
+    static final class MiningPlan {
+        static final int BOTTOM_Y = -58;
+
+        // Nombre max de cibles inspectées par appel (cibles modifiées depuis le scan)
+        private static final int MAX_PROBES_PER_CALL = 4096;
+
+        private final World world;
+        private final int minX, maxX, minZ, maxZ, topY, bottomY;
+        private final boolean veinMode;
+
+        private long cursor;        // prochaine position à miner
+        private long[] targets;     // null tant que le scan n'est pas terminé
+        private long[] sortedTargets; // mode filon : copie triée des cibles (recherche dichotomique)
+        private int index;
+        private boolean finished;
+
+        // Rattrapage hors-ligne
+        long unloadedSince = -1;    // gameTime du déchargement, -1 si chargée
+        boolean catchingUp = false; // rattrapage en cours sur un worker
+
+        // Plan à terminer avant celui-ci (puits d'accès au-dessus de la bande), null sinon
+        MiningPlan prerequisite;
+
+        MiningPlan(World world, int minX, int minZ, int width, int length, int topY, int bottomY, boolean veinMode) {
+            this.world   = world;
+            this.minX    = minX;
+            this.maxX    = minX + width - 1;
+            this.minZ    = minZ;
+            this.maxZ    = minZ + length - 1;
+            this.topY    = topY;
+            this.bottomY = bottomY;
+            this.veinMode = veinMode;
+            this.cursor  = BlockKey.pack(minX, topY, minZ);
+            this.finished = topY < bottomY || width <= 0 || length <= 0;
+        }
+
+        /** Reçoit le résultat du scan (positions triées dans l'ordre de minage). */
+        void setTargets(long[] scanned) {
+            targets = scanned;
+            if (veinMode) {
+                sortedTargets = scanned.clone();
+                Arrays.sort(sortedTargets);
+            }
+            index = 0;
+            if (scanned.length == 0) {
+                markFinished();
+            } else {
+                cursor = scanned[0];
+            }
+        }
+
+        boolean isReady() {
+            return targets != null;
+        }
+
+        /** En attente d'un autre plan (puits d'accès pas encore creusé) ? */
+        boolean isHeld() {
+            return prerequisite != null && !prerequisite.isFinished();
+        }
+
+        /**
+         * Renvoie la prochaine cible encore minable et avance le curseur,
+         * ou null si le plan n'est pas prêt, est terminé, ou si le quota est épuisé.
+         */
+        Block next() {
+            if (targets == null) {
+                return null;
+            }
+            for (int probes = 0; probes < MAX_PROBES_PER_CALL && !finished; probes++) {
+                long key = targets[index++];
+                if (index < targets.length) {
+                    cursor = targets[index];
+                } else {
+                    markFinished();
+                }
+
+                // Le monde a pu changer depuis le scan : on revérifie
+                Block b = world.getBlockAt(BlockKey.x(key), BlockKey.y(key), BlockKey.z(key));
+                Material mat = b.getType();
+                if (mat != Material.BEDROCK && !mat.isAir()) {
+                    return b;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * (x, y, z) est-il miné par ce plan ? Toute la boîte du plan en mode couches,
+         * seulement les cibles scannées en mode filon (faux tant que le scan n'est pas fini).
+         */
+        boolean mines(int x, int y, int z) {
+            if (x < minX || x > maxX || z < minZ || z > maxZ || y > topY || y < bottomY) {
+                return false;
+            }
+            if (!veinMode) {
+                return true;
+            }
+            return sortedTargets != null && Arrays.binarySearch(sortedTargets, BlockKey.pack(x, y, z)) >= 0;
+        }
+
+        /** Remet en tête la dernière cible rendue par next(), qui sera redemandée. */
+        void holdBack() {
+            index--;
+            cursor = targets[index];
+            finished = false;
+        }
+
+        /** Avance directement jusqu'à la cible n° newIndex (rattrapage). */
+        void skipTo(int newIndex) {
+            index = newIndex;
+            if (index >= targets.length) {
+                markFinished();
+            } else {
+                cursor = targets[index];
+            }
+        }
+
+        /** Tous les chunks de la sous-zone sont-ils chargés ? (ne charge rien) */
+        boolean isLoaded() {
+            for (int cx = minX >> 4; cx <= maxX >> 4; cx++) {
+                for (int cz = minZ >> 4; cz <= maxZ >> 4; cz++) {
+                    if (!world.isChunkLoaded(cx, cz)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        boolean covers(int cx, int cz) {
+            return cx >= minX >> 4 && cx <= maxX >> 4 && cz >= minZ >> 4 && cz <= maxZ >> 4;
+        }
+
+        private void markFinished() {
+            finished = true;
+            cursor = BlockKey.pack(minX, bottomY - 1, minZ);
+        }
+
+        /** Replace le curseur (reprise après redémarrage), si la position est dans la zone. */
+        void resumeAt(long key) {
+            int x = BlockKey.x(key);
+            int y = BlockKey.y(key);
+            int z = BlockKey.z(key);
+            if (x < minX || x > maxX || z < minZ || z > maxZ || y > topY) {
+                return;
+            }
+            cursor = key;
+            finished = y < bottomY;
+        }
+
+        boolean isFinished() {
+            return finished;
+        }
+
+        long getCursor() {
+            return cursor;
+        }
+    }
+
+    /* =========================================================== */
+    /*   CLASSE StorageFilter : quels drops finissent en coffre     */
+    /* =========================================================== */
+    /**
+     * En mode MINERAIS, seuls les produits de minerais et la liste blanche
+     * sont stockés : cobblestone, deepslate, terre, tuf... sont détruits
+     * et simplement comptés, ce qui évite un addItem par bloc.
+     */
+    static final class StorageFilter {
+        enum Mode { TOUT, MINERAIS }
+
+        private static final Material[] MATERIALS = Material.values();
+
+        private static final Set<Material> ORE_ITEMS = EnumSet.of(
+                Material.COAL, Material.RAW_IRON, Material.RAW_COPPER, Material.RAW_GOLD,
+                Material.DIAMOND, Material.EMERALD, Material.LAPIS_LAZULI, Material.REDSTONE,
+                Material.GOLD_NUGGET, Material.QUARTZ, Material.ANCIENT_DEBRIS, Material.AMETHYST_SHARD
+        );
+
+        Mode mode = Mode.TOUT;
+        final Set<Material> whitelist = EnumSet.noneOf(Material.class);
+        private final long[] voided = new long[MATERIALS.length];
+
+        boolean keeps(Material m) {
+            return mode == Mode.TOUT || ORE_ITEMS.contains(m) || whitelist.contains(m);
+        }
+
+        void countVoided(Material m, long amount) {
+            voided[m.ordinal()] += amount;
+        }
+
+        long totalVoided() {
+            long total = 0;
+            for (long v : voided) {
+                total += v;
+            }
+            return total;
+        }
+
+        /** Les n matériaux les plus détruits, "NOM : quantité". */
+        List<String> topVoided(int n) {
+            List<Material> mats = new ArrayList<>();
+            for (Material m : MATERIALS) {
+                if (voided[m.ordinal()] > 0) {
+                    mats.add(m);
+                }
+            }
+            mats.sort((a, b) -> Long.compare(voided[b.ordinal()], voided[a.ordinal()]));
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < Math.min(n, mats.size()); i++) {
+                Material m = mats.get(i);
+                lines.add(m.name() + " : " + voided[m.ordinal()]);
+            }
+            return lines;
+        }
+
+        void writeTo(Map<String, Object> map) {
+            map.put("filter", mode.name());
+            List<String> names = new ArrayList<>();
+            for (Material m : whitelist) {
+                names.add(m.name());
+            }
+            map.put("whitelist", names);
+            Map<String, Object> counts = new LinkedHashMap<>();
+            for (Material m : MATERIALS) {
+                if (voided[m.ordinal()] > 0) {
+                    counts.put(m.name(), voided[m.ordinal()]);
+                }
+            }
+            map.put("voided", counts);
+        }
+
+        static StorageFilter fromSection(ConfigurationSection sec) {
+            StorageFilter f = new StorageFilter();
+            try {
+                f.mode = Mode.valueOf(sec.getString("filter", Mode.TOUT.name()));
+            } catch (IllegalArgumentException ignored) { }
+            for (String name : sec.getStringList("whitelist")) {
+                Material m = Material.matchMaterial(name);
+                if (m != null) {
+                    f.whitelist.add(m);
+                }
+            }
+            ConfigurationSection counts = sec.getConfigurationSection("voided");
+            if (counts != null) {
+                for (String name : counts.getKeys(false)) {
+                    Material m = Material.matchMaterial(name);
+                    if (m != null) {
+                        f.voided[m.ordinal()] = counts.getLong(name);
+                    }
+                }
+            }
+            return f;
+        }
+    }
+
+    /* =========================================================== */
+    /*   CLASSE DropResolver : drops mis en cache par Material      */
+    /* =========================================================== */
+    /**
+     * Résout les drops d'un bloc cassé à la pioche en fer.
+     * La plupart des blocs ont un drop fixe (stone -> cobblestone,
+     * deepslate -> cobbled deepslate, minerai de fer -> 1 raw iron...) :
+     * il est calculé une seule fois puis resservi depuis une EnumMap.
+     * Seuls les matériaux d'une liste blanche au drop fixe sont mis en cache :
+     * tout le reste (drop aléatoire, dépendant de l'état ou du bloc-entité)
+     * passe par Block.getDrops() à chaque fois.
+     * Les piles renvoyées sont partagées : les cloner avant de les stocker.
+     */
+    static final class DropResolver {
+        static final DropResolver INSTANCE = new DropResolver();
+
+        private static final ItemStack TOOL = new ItemStack(Material.IRON_PICKAXE);
+        private static final ItemStack[] NONE = new ItemStack[0];
+
+        // Drop fixe (toujours le même item, même quantité) à la pioche sans enchantement,
+        // quel que soit l'état du bloc : le gros du volume d'une carrière
+        private static final Set<Material> FIXED_DROPS = EnumSet.of(
+                Material.STONE, Material.COBBLESTONE, Material.DEEPSLATE, Material.COBBLED_DEEPSLATE,
+                Material.GRANITE, Material.DIORITE, Material.ANDESITE, Material.TUFF, Material.CALCITE,
+                Material.DRIPSTONE_BLOCK, Material.SMOOTH_BASALT, Material.OBSIDIAN,
+                Material.DIRT, Material.COARSE_DIRT, Material.ROOTED_DIRT, Material.GRASS_BLOCK,
+                Material.MUD, Material.CLAY, Material.SAND, Material.RED_SAND,
+                Material.SANDSTONE, Material.RED_SANDSTONE, Material.TERRACOTTA,
+                Material.NETHERRACK, Material.BASALT, Material.BLACKSTONE, Material.END_STONE,
+                Material.COAL_ORE, Material.DEEPSLATE_COAL_ORE,
+                Material.IRON_ORE, Material.DEEPSLATE_IRON_ORE,
+                Material.GOLD_ORE, Material.DEEPSLATE_GOLD_ORE,
+                Material.DIAMOND_ORE, Material.DEEPSLATE_DIAMOND_ORE,
+                Material.EMERALD_ORE, Material.DEEPSLATE_EMERALD_ORE,
+                Material.NETHER_QUARTZ_ORE, Material.ANCIENT_DEBRIS,
+                Material.RAW_IRON_BLOCK, Material.RAW_COPPER_BLOCK, Material.RAW_GOLD_BLOCK,
+                Material.AMETHYST_BLOCK
+        );
+
+        private final Map<Material, ItemStack[]> cache = new EnumMap<>(Material.class);
+
+        private DropResolver() {
+        }
+
+        ItemStack[] resolve(Block b) {
+            Material mat = b.getType();
+            if (!FIXED_DROPS.contains(mat)) {
+                return b.getDrops(TOOL).toArray(NONE);
+            }
+            ItemStack[] cached = cache.get(mat);
+            if (cached == null) {
+                cached = b.getDrops(TOOL).toArray(NONE);
+                cache.put(mat, cached);
+            }
+            return cached;
+        }
+    }
+
+    /* =========================================================== */
+    /*   CLASSE QuarryScan : scan asynchrone par ChunkSnapshot      */
+    /* =========================================================== */
+    /**
+     * Scan de la zone sans bloquer le tick :
+     *  1) les chunks sont chargés (getChunkAtAsync) et photographiés sur le thread principal ;
+     *  2) un worker parcourt les ChunkSnapshot et liste les cibles à miner ;
+     *  3) seul le tableau de positions revient sur le thread principal.
+     */
+    static final class QuarryScan {
+
+        private QuarryScan() {
+        }
+
+        static void scan(JavaPlugin plugin, MiningPlan plan, Consumer<long[]> onDone, Runnable onFailed) {
+            if (plan.isFinished()) {
+                onDone.accept(new long[0]);
+                return;
+            }
+            int minCX = plan.minX >> 4;
+            int minCZ = plan.minZ >> 4;
+            int minHeight = plan.world.getMinHeight();
+            int maxHeight = plan.world.getMaxHeight();
+            long from = plan.getCursor();
+
+            loadSnapshots(plugin, plan.world, plan.minX, plan.maxX, plan.minZ, plan.maxZ, snapshots ->
+                    Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                        long[] targets = plan.veinMode
+                                ? collectVeinTargets(plan, snapshots, minCX, minCZ, minHeight, maxHeight)
+                                : collectTargets(plan, snapshots, minCX, minCZ, minHeight, maxHeight, from);
+                        Bukkit.getScheduler().runTask(plugin, () -> onDone.accept(targets));
+                    }), onFailed);
+        }
+
+        /**
+         * Charge (getChunkAtAsync) puis photographie sur le thread principal tous les chunks
+         * couvrant [minX..maxX] x [minZ..maxZ]. Tableau indexé [cx - minCX][cz - minCZ].
+         * Si un chunk ne peut pas être chargé, onFailed est appelé (thread principal) à la place.
+         */
+        static void loadSnapshots(JavaPlugin plugin, World w, int minX, int maxX, int minZ, int maxZ,
+                                  Consumer<ChunkSnapshot[][]> onLoaded, Runnable onFailed) {
+            int minCX = minX >> 4, maxCX = maxX >> 4;
+            int minCZ = minZ >> 4, maxCZ = maxZ >> 4;
+            ChunkSnapshot[][] snapshots = new ChunkSnapshot[maxCX - minCX + 1][maxCZ - minCZ + 1];
+
+            List<CompletableFuture<Chunk>> loads = new ArrayList<>();
+            for (int cx = minCX; cx <= maxCX; cx++) {
+                for (int cz = minCZ; cz <= maxCZ; cz++) {
+                    int ix = cx - minCX, iz = cz - minCZ;
+                    // Complété sur le thread principal : la photo y est prise
+                    loads.add(w.getChunkAtAsync(cx, cz).thenApply(chunk -> {
+                        snapshots[ix][iz] = chunk.getChunkSnapshot(false, false, false);
+                        return chunk;
+                    }));
+                }
+            }
+
+            CompletableFuture.allOf(loads.toArray(new CompletableFuture[0])).whenComplete((ok, error) -> {
+                if (error != null) {
+                    plugin.getLogger().warning("Mineur : échec du chargement de la zone à scanner : " + error);
+                    Bukkit.getScheduler().runTask(plugin, onFailed);
+                    return;
+                }
+                onLoaded.accept(snapshots);
+            });
+        }
+
+        /**
+         * Prévision : total de blocs à miner, nombre par matériau et un bloc témoin
+         * par matériau (pour estimer les drops).
+         */
+        record Forecast(long total, Map<Material, int[]> blocks, Map<Material, Long> samples) {
+        }
+
+        /**
+         * Prévision d'une zone : un worker par chunk compte les blocs minables
+         * de sa colonne, les résultats sont fusionnés puis rendus au thread principal.
+         */
+        static void forecast(JavaPlugin plugin, World w, int minX, int minZ, int width, int length,
+                             int topY, int bottomY, Consumer<Forecast> onDone, Runnable onFailed) {
+            int maxX = minX + width - 1;
+            int maxZ = minZ + length - 1;
+            int minHeight = w.getMinHeight();
+            loadSnapshots(plugin, w, minX, maxX, minZ, maxZ, snapshots -> {
+                Map<Material, int[]> blocks = new EnumMap<>(Material.class);
+                Map<Material, Long> samples = new EnumMap<>(Material.class);
+                long[] total = new long[1];
+                AtomicInteger pending = new AtomicInteger(snapshots.length * snapshots[0].length);
+
+                for (int ix = 0; ix < snapshots.length; ix++) {
+                    for (int iz = 0; iz < snapshots[ix].length; iz++) {
+                        ChunkSnapshot snap = snapshots[ix][iz];
+                        int cx = (minX >> 4) + ix, cz = (minZ >> 4) + iz;
+                        int x0 = Math.max(minX, cx << 4), x1 = Math.min(maxX, (cx << 4) + 15);
+                        int z0 = Math.max(minZ, cz << 4), z1 = Math.min(maxZ, (cz << 4) + 15);
+
+                        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                            Map<Material, int[]> local = new EnumMap<>(Material.class);
+                            Map<Material, Long> localSamples = new EnumMap<>(Material.class);
+                            long localTotal = 0;
+                            for (int y = topY; y >= bottomY; y--) {
+                                // Section 16x16x16 vide : on saute directement sous elle
+                                if (snap.isSectionEmpty(sectionIndex(y, minHeight))) {
+                                    y = sectionBottom(y, minHeight);
+                                    continue;
+                                }
+                                for (int x = x0; x <= x1; x++) {
+                                    for (int z = z0; z <= z1; z++) {
+                                        Material mat = snap.getBlockType(x & 15, y, z & 15);
+                                        if (mat == Material.BEDROCK || mat.isAir()) {
+                                            continue;
+                                        }
+                                        localTotal++;
+                                        local.computeIfAbsent(mat, m -> new int[1])[0]++;
+                                        localSamples.putIfAbsent(mat, BlockKey.pack(x, y, z));
+                                    }
+                                }
+                            }
+                            synchronized (blocks) {
+                                total[0] += localTotal;
+                                local.forEach((m, c) -> blocks.computeIfAbsent(m, k -> new int[1])[0] += c[0]);
+                                localSamples.forEach(samples::putIfAbsent);
+                            }
+                            if (pending.decrementAndGet() == 0) {
+                                Forecast result;
+                                synchronized (blocks) {
+                                    result = new Forecast(total[0], blocks, samples);
+                                }
+                                Bukkit.getScheduler().runTask(plugin, () -> onDone.accept(result));
+                            }
+                        });
+                    }
+                }
+            }, onFailed);
+        }
+
+        /**
+         * Résultat d'un rattrapage : blocs à retirer, index de chacun dans les cibles du plan
+         * (pour avancer le curseur tranche par tranche) et index de la prochaine cible du plan.
+         */
+        record CatchUp(long[] positions, int[] indices, int nextIndex) {
+        }
+
+        /**
+         * Rattrapage : photographie la sous-zone (déjà chargée), puis un worker
+         * avance sur les cibles du plan jusqu'à avoir trouvé owed blocs à miner.
+         */
+        static void catchUp(JavaPlugin plugin, MiningPlan plan, int owed, Consumer<CatchUp> onDone) {
+            int minCX = plan.minX >> 4, maxCX = plan.maxX >> 4;
+            int minCZ = plan.minZ >> 4, maxCZ = plan.maxZ >> 4;
+            ChunkSnapshot[][] snapshots = new ChunkSnapshot[maxCX - minCX + 1][maxCZ - minCZ + 1];
+            for (int cx = minCX; cx <= maxCX; cx++) {
+                for (int cz = minCZ; cz <= maxCZ; cz++) {
+                    snapshots[cx - minCX][cz - minCZ] =
+                            plan.world.getChunkAt(cx, cz).getChunkSnapshot(false, false, false);
+                }
+            }
+            long[] targets = plan.targets;
+            int from = plan.index;
+
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                long[] positions = new long[Math.min(owed, targets.length - from)];
+                int[] indices = new int[positions.length];
+                int n = 0;
+                int i = from;
+                for (; i < targets.length && n < owed; i++) {
+                    long key = targets[i];
+                    int x = BlockKey.x(key), y = BlockKey.y(key), z = BlockKey.z(key);
+                    Material mat = snapshots[(x >> 4) - minCX][(z >> 4) - minCZ]
+                            .getBlockType(x & 15, y, z & 15);
+                    if (mat == Material.BEDROCK || mat.isAir()) {
+                        continue;
+                    }
+                    indices[n] = i;
+                    positions[n++] = key;
+                }
+                CatchUp result = new CatchUp(Arrays.copyOf(positions, n), Arrays.copyOf(indices, n), i);
+                Bukkit.getScheduler().runTask(plugin, () -> onDone.accept(result));
+            });
+        }
+
+        /** Positions compactées, dans l'ordre de minage (tableau qui grandit, pas d'objets par bloc). */
+        private static final class TargetBuffer {
+            private long[] keys = new long[1024];
+            private int size;
+
+            void add(int x, int y, int z) {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size * 2);
+                }
+                keys[size++] = BlockKey.pack(x, y, z);
+            }
+
+            long[] toArray() {
+                return Arrays.copyOf(keys, size);
+            }
+        }
+
+        /** Thread worker : ne lit que les snapshots, jamais le monde. */
+        private static long[] collectTargets(MiningPlan plan, ChunkSnapshot[][] snapshots,
+                                             int minCX, int minCZ, int minHeight, int maxHeight, long from) {
+            TargetBuffer out = new TargetBuffer();
+
+            int fromX = BlockKey.x(from);
+            int fromY = BlockKey.y(from);
+            int fromZ = BlockKey.z(from);
+
+            for (int y = fromY; y >= plan.bottomY; y--) {
+                // Section vide dans tous les chunks du plan (grotte, ciel) : saut de 16 couches max
+                int section = sectionIndex(y, minHeight);
+                if (allSectionsEmpty(snapshots, section)) {
+                    y = sectionBottom(y, minHeight);
+                    continue;
+                }
+                int startX = (y == fromY) ? fromX : plan.minX;
+                for (int x = startX; x <= plan.maxX; x++) {
+                    int startZ = (y == fromY && x == fromX) ? fromZ : plan.minZ;
+                    ChunkSnapshot[] column = snapshots[(x >> 4) - minCX];
+                    for (int z = startZ; z <= plan.maxZ; z++) {
+                        ChunkSnapshot snap = column[(z >> 4) - minCZ];
+                        if (snap.isSectionEmpty(section)) {
+                            z |= 15; // fin de la portion de ce chunk
+                            continue;
+                        }
+                        Material mat = snap.getBlockType(x & 15, y, z & 15);
+                        if (mat == Material.BEDROCK || mat.isAir()) {
+                            continue;
+                        }
+                        // Couche du haut : le sable / gravier posé au-dessus de la zone part d'abord.
+                        // Plus bas, le bloc du dessus est une cible d'une couche déjà émise.
+                        if (y == plan.topY) {
+                            for (int gy = gravityStackTop(snap, x, y, z, maxHeight); gy > y; gy--) {
+                                out.add(x, gy, z);
+                            }
+                        }
+                        out.add(x, y, z);
+                    }
+                }
+            }
+            return out.toArray();
+        }
+
+        /**
+         * Mode filon (thread worker) : couche par couche, chaque minerai pas encore visité
+         * démarre un filon, rempli par diffusion (26 voisins) dans les limites du plan.
+         * Le balayage étant descendant, ce minerai est le point le plus haut du filon :
+         * on émet d'abord le puits 1x1 qui y descend depuis le haut de la zone, puis le filon.
+         */
+        private static long[] collectVeinTargets(MiningPlan plan, ChunkSnapshot[][] snapshots,
+                                                 int minCX, int minCZ, int minHeight, int maxHeight) {
+            int sizeX = plan.maxX - plan.minX + 1;
+            int sizeZ = plan.maxZ - plan.minZ + 1;
+            int layer = sizeX * sizeZ;
+            // Indice local : (topY - y) * layer + (x - minX) * sizeZ + (z - minZ)
+            boolean[] seen = new boolean[(plan.topY - plan.bottomY + 1) * layer];
+            Set<Long> seenAbove = new HashSet<>(); // piles au-dessus de la zone (rares)
+            int[] stack = new int[256];
+            TargetBuffer out = new TargetBuffer();
+
+            for (int y = plan.topY; y >= plan.bottomY; y--) {
+                if (allSectionsEmpty(snapshots, sectionIndex(y, minHeight))) {
+                    y = sectionBottom(y, minHeight);
+                    continue;
+                }
+                int rowBase = (plan.topY - y) * layer;
+                for (int x = plan.minX; x <= plan.maxX; x++) {
+                    for (int z = plan.minZ; z <= plan.maxZ; z++) {
+                        int idx = rowBase + (x - plan.minX) * sizeZ + (z - plan.minZ);
+                        if (seen[idx] || !isOre(typeAt(snapshots, minCX, minCZ, x, y, z))) {
+                            continue;
+                        }
+
+                        // Puits d'accès (les blocs déjà émis ou vides sont sautés)
+                        for (int sy = plan.topY; sy > y; sy--) {
+                            int s = (plan.topY - sy) * layer + (x - plan.minX) * sizeZ + (z - plan.minZ);
+                            if (seen[s]) {
+                                continue;
+                            }
+                            seen[s] = true;
+                            Material mat = typeAt(snapshots, minCX, minCZ, x, sy, z);
+                            if (mat == Material.BEDROCK || mat.isAir()) {
+                                continue;
+                            }
+                            addVeinTarget(plan, snapshots, minCX, minCZ, maxHeight, seen, seenAbove, out, x, sy, z);
+                        }
+
+                        // Filon (pile d'indices locaux, pas d'objets par bloc)
+                        seen[idx] = true;
+                        stack[0] = idx;
+                        int top = 1;
+                        while (top > 0) {
+                            int cur = stack[--top];
+                            int cy = plan.topY - cur / layer;
+                            int cx = plan.minX + (cur % layer) / sizeZ;
+                            int cz = plan.minZ + cur % sizeZ;
+                            addVeinTarget(plan, snapshots, minCX, minCZ, maxHeight, seen, seenAbove, out, cx, cy, cz);
+
+                            for (int dy = -1; dy <= 1; dy++) {
+                                int ny = cy + dy;
+                                if (ny > plan.topY || ny < plan.bottomY) continue;
+                                for (int dx = -1; dx <= 1; dx++) {
+                                    int nx = cx + dx;
+                                    if (nx < plan.minX || nx > plan.maxX) continue;
+                                    for (int dz = -1; dz <= 1; dz++) {
+                                        int nz = cz + dz;
+                                        if (nz < plan.minZ || nz > plan.maxZ) continue;
+                                        int ni = (plan.topY - ny) * layer + (nx - plan.minX) * sizeZ + (nz - plan.minZ);
+                                        if (seen[ni] || !isOre(typeAt(snapshots, minCX, minCZ, nx, ny, nz))) {
+                                            continue;
+                                        }
+                                        seen[ni] = true;
+                                        if (top == stack.length) {
+                                            stack = Arrays.copyOf(stack, top * 2);
+                                        }
+                                        stack[top++] = ni;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            return out.toArray();
+        }
+
+        /**
+         * Mode filon : émet (x, y, z) précédé de la pile de blocs à gravité qu'il soutient,
+         * du haut vers le bas, en sautant ce qui a déjà été émis.
+         */
+        private static void addVeinTarget(MiningPlan plan, ChunkSnapshot[][] snapshots, int minCX, int minCZ,
+                                          int maxHeight, boolean[] seen, Set<Long> seenAbove,
+                                          TargetBuffer out, int x, int y, int z) {
+            ChunkSnapshot snap = snapshots[(x >> 4) - minCX][(z >> 4) - minCZ];
+            int sizeZ = plan.maxZ - plan.minZ + 1;
+            int layer = (plan.maxX - plan.minX + 1) * sizeZ;
+            for (int gy = gravityStackTop(snap, x, y, z, maxHeight); gy > y; gy--) {
+                if (gy > plan.topY) {
+                    if (!seenAbove.add(BlockKey.pack(x, gy, z))) {
+                        continue;
+                    }
+                } else {
+                    int s = (plan.topY - gy) * layer + (x - plan.minX) * sizeZ + (z - plan.minZ);
+                    if (seen[s]) {
+                        continue;
+                    }
+                    seen[s] = true;
+                }
+                out.add(x, gy, z);
+            }
+            out.add(x, y, z);
+        }
+
+        /**
+         * Haut de la pile continue de blocs soumis à la gravité (sable, gravier...)
+         * posée sur (x, y, z) ; y s'il n'y en a pas. Les retirer du haut vers le bas
+         * avant leur support évite toute entité FallingBlock.
+         */
+        private static int gravityStackTop(ChunkSnapshot snap, int x, int y, int z, int maxHeight) {
+            int top = y;
+            while (top + 1 < maxHeight && snap.getBlockType(x & 15, top + 1, z & 15).hasGravity()) {
+                top++;
+            }
+            return top;
+        }
+
+        private static Material typeAt(ChunkSnapshot[][] snapshots, int minCX, int minCZ, int x, int y, int z) {
+            return snapshots[(x >> 4) - minCX][(z >> 4) - minCZ].getBlockType(x & 15, y, z & 15);
+        }
+
+        /** Blocs de minerai (toutes variantes *_ORE + débris antiques). */
+        private static final Set<Material> ORE_BLOCKS = EnumSet.noneOf(Material.class);
+        static {
+            for (Material m : Material.values()) {
+                if (m.name().endsWith("_ORE")) {
+                    ORE_BLOCKS.add(m);
+                }
+            }
+            ORE_BLOCKS.add(Material.ANCIENT_DEBRIS);
+        }
+
+        static boolean isOre(Material m) {
+            return ORE_BLOCKS.contains(m);
+        }
+
+        private static int sectionIndex(int y, int minHeight) {
+            return (y - minHeight) >> 4;
+        }
+
+        /** Couche la plus basse de la section contenant y (le y-- de la boucle passe à la suivante). */
+        private static int sectionBottom(int y, int minHeight) {
+            return minHeight + (sectionIndex(y, minHeight) << 4);
+        }
+
+        private static boolean allSectionsEmpty(ChunkSnapshot[][] snapshots, int section) {
+            for (ChunkSnapshot[] column : snapshots) {
+                for (ChunkSnapshot snap : column) {
+                    if (!snap.isSectionEmpty(section)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    /* =========================================================== */
+    /*   CLASSE QuarryPit : volume d'une fosse protégée            */
+    /* =========================================================== */
+    /**
+     * Colonne minée (du Y de la sélection jusqu'au fond) où les spawns naturels sont annulés.
+     */
+    record QuarryPit(UUID world, int minX, int maxX, int minZ, int maxZ, int topY, int bottomY) {
+
+        static QuarryPit of(Location base, int width, int length, int bottomY) {
+            return new QuarryPit(base.getWorld().getUID(),
+                    base.getBlockX(), base.getBlockX() + width - 1,
+                    base.getBlockZ(), base.getBlockZ() + length - 1,
+                    base.getBlockY(), bottomY);
+        }
+
+        boolean contains(int x, int y, int z) {
+            return x >= minX && x <= maxX && z >= minZ && z <= maxZ && y >= bottomY && y <= topY + 1;
+        }
+
+        String describe() {
+            World w = Bukkit.getWorld(world);
+            return (w != null ? w.getName() : world.toString()) + " (" + minX + ", " + topY + ", " + minZ + ") "
+                    + (maxX - minX + 1) + "x" + (maxZ - minZ + 1) + " jusqu'à Y=" + bottomY;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("world", world.toString());
+            map.put("minX", minX);
+            map.put("maxX", maxX);
+            map.put("minZ", minZ);
+            map.put("maxZ", maxZ);
+            map.put("topY", topY);
+            map.put("bottomY", bottomY);
+            return map;
+        }
+
+        static QuarryPit fromMap(Map<?, ?> map) {
+            try {
+                return new QuarryPit(UUID.fromString(String.valueOf(map.get("world"))),
+                        ((Number) map.get("minX")).intValue(), ((Number) map.get("maxX")).intValue(),
+                        ((Number) map.get("minZ")).intValue(), ((Number) map.get("maxZ")).intValue(),
+                        ((Number) map.get("topY")).intValue(), ((Number) map.get("bottomY")).intValue());
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+
     /* =========================================================== */
     /*   CLASSE interne Selection pour mémoriser 2 coins cliqués   */
     /* =========================================================== */
@@ -604,6 +2391,62 @@ public class Mineur implements CommandExecutor, Listener {
         private Block corner1;
         private Block corner2;
 
+        // Bande de Y demandée ({minY, maxY}), null = jusqu'en bas
+        private int[] band;
+
+        // Zone en attente de confirmation (après la prévision)
+        private Location pendingBase;
+        private int pendingWidth;
+        private int pendingLength;
+        private int pendingTop;
+        private int pendingBottom;
+        private boolean forecastReady;
+
+        public int[] getBand() {
+            return band;
+        }
+
+        public void setBand(int[] band) {
+            this.band = band;
+        }
+
+        public void setPending(Location base, int width, int length, int top, int bottom) {
+            this.pendingBase = base;
+            this.pendingWidth = width;
+            this.pendingLength = length;
+            this.pendingTop = top;
+            this.pendingBottom = bottom;
+            this.forecastReady = false;
+        }
+
+        public int getPendingTop() {
+            return pendingTop;
+        }
+
+        public int getPendingBottom() {
+            return pendingBottom;
+        }
+
+        public Location getPendingBase() {
+            return pendingBase;
+        }
+
+        public int getPendingWidth() {
+            return pendingWidth;
+        }
+
+        public int getPendingLength() {
+            return pendingLength;
+        }
+
+        public boolean isForecastReady() {
+            return forecastReady;
+        }
+
+        public void setForecastReady(boolean forecastReady) {
+            this.forecastReady = forecastReady;
+        }
+
         public Block getCorner1() {
             return corner1;
         }
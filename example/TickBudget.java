@@ -0,0 +1,56 @@
+package org.example;
+
+import org.bukkit.Bukkit;
+
+/**
+ * Débit de travail par tick (blocs, parcelles...) adapté à la charge du serveur.
+ * - Au-dessus de 45 ms/tick : le débit effectif est divisé par 2.
+ * - Sous 36 ms/tick : il remonte d'une unité, jusqu'au maximum configuré.
+ * Le MSPT lu est la moyenne glissante du serveur, on ne réajuste donc
+ * qu'une fois par seconde pour lui laisser le temps de réagir.
+ */
+public final class TickBudget {
+
+    public static final double MAX_MSPT      = 45.0;
+    private static final double HEADROOM_MSPT = MAX_MSPT * 0.8;
+    private static final int ADJUST_PERIOD    = 20; // ticks entre deux ajustements
+
+    private int maxPerTick;
+    private int current;
+    private int ticksSinceAdjust = 0;
+
+    public TickBudget(int maxPerTick) {
+        this.maxPerTick = Math.max(1, maxPerTick);
+        this.current = 1; // montée progressive
+    }
+
+    /**
+     * À appeler une fois par tick : renvoie le nombre d'unités de travail autorisées.
+     */
+    public int nextAllowance() {
+        if (++ticksSinceAdjust >= ADJUST_PERIOD) {
+            ticksSinceAdjust = 0;
+            double mspt = Bukkit.getAverageTickTime();
+            if (mspt > MAX_MSPT) {
+                current = Math.max(1, current / 2);
+            } else if (mspt < HEADROOM_MSPT && current < maxPerTick) {
+                current++;
+            }
+        }
+        return Math.min(current, maxPerTick);
+    }
+
+    public int getMaxPerTick() {
+        return maxPerTick;
+    }
+
+    public void setMaxPerTick(int maxPerTick) {
+        this.maxPerTick = Math.max(1, maxPerTick);
+        this.current = Math.min(current, this.maxPerTick);
+    }
+
+    /** Débit effectivement appliqué en ce moment. */
+    public int getCurrent() {
+        return Math.min(current, maxPerTick);
+    }
+}